@@ -0,0 +1,79 @@
+package badlib.bench;
+
+import badlib.FresnelKernel;
+import badlib.IntegrationKernel;
+import badlib.Point;
+import badlib.Series;
+import badlib.TaylorKernel;
+
+/**
+ * Compares how close {@link TaylorKernel} and {@link FresnelKernel} get to the true position, over the angular
+ * accelerations and omegas a {@link badlib.Path} makes. The true position comes from integrating the speed times the
+ * cosine and sine of the angle directly, with Gauss-Legendre quadrature on many small steps.
+ * Run it as a plain main method, it doesn't need JMH.
+ */
+public class KernelAccuracy {
+	
+	private static final double[] ALPHAS = {-2*Math.PI, -1, -0.25, 0.25, 1, 2*Math.PI};
+	private static final double[] OMEGAS = {-3, -1.5, -0.5, 0, 0.5, 1.5, 3};
+	private static final double[] POSITION_ACCELS = {-50, 0, 50};
+	private static final double SPEED = 20;
+	private static final double LONGEST = 1.5;
+	private static final int TIMES = 50;
+	
+	// 5 point Gauss-Legendre nodes and weights on [-1, 1]
+	private static final double[] NODES = {0, -0.5384693101056831, 0.5384693101056831, -0.9061798459386640, 0.9061798459386640};
+	private static final double[] WEIGHTS = {0.5688888888888889, 0.4786286704993665, 0.4786286704993665, 0.2369268850561891, 0.2369268850561891};
+	private static final int STEPS = 2000;
+	
+	public static void main(String[] args) {
+		for (Series series : Series.values()) {
+			double max = 0, squares = 0;
+			int count = 0;
+			Point dest = new Point();
+			Point truth = new Point();
+			
+			for (double alpha : ALPHAS) {
+				for (double omega : OMEGAS) {
+					IntegrationKernel kernel = series.kernel(alpha, omega);
+					for (double pA : POSITION_ACCELS) {
+						for (int i = 1; i <= TIMES; i++) {
+							double t = LONGEST * i / TIMES;
+							kernel.integrate(t, pA, SPEED, dest);
+							reference(t, alpha, omega, pA, SPEED, truth);
+							
+							double error = Math.hypot(dest.x - truth.x, dest.y - truth.y);
+							max = Math.max(max, error);
+							squares += error * error;
+							count++;
+						}
+					}
+				}
+			}
+			
+			System.out.printf("%-8s max error %.3e in, rms error %.3e in, over %d points%n", series, max, Math.sqrt(squares / count), count);
+		}
+	}
+	
+	/**
+	 * Integrates the position the slow way. The angle includes the same offset the kernels leave in, b^2/(2a).
+	 */
+	private static void reference(double t, double a, double b, double pA, double s, Point dest) {
+		double offset = b*b / (2*a);
+		double step = t / STEPS;
+		double x = 0, y = 0;
+		for (int i = 0; i < STEPS; i++) {
+			double middle = (i + 0.5) * step;
+			for (int j = 0; j < NODES.length; j++) {
+				double time = middle + NODES[j] * step / 2;
+				double angle = a*time*time/2 + b*time + offset;
+				double speed = s + pA*time;
+				x += WEIGHTS[j] * step / 2 * speed * Math.cos(angle);
+				y += WEIGHTS[j] * step / 2 * speed * Math.sin(angle);
+			}
+		}
+		dest.x = x;
+		dest.y = y;
+	}
+	
+}
@@ -0,0 +1,312 @@
+package badlib.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import badlib.IntegrationEngine;
+import badlib.Path;
+import badlib.Point;
+import badlib.Series;
+
+/**
+ * Checks how far whole {@link Path}s drift from where the robot really goes, and what each position costs, for every {@link Series}.
+ * The true position comes from integrating the path's own speed times the cosine and sine of its heading directly,
+ * with adaptive Gauss-Kronrod quadrature, so it only depends on {@link Path#speed(double)} and {@link Path#angle(double)},
+ * not on any kernel. Each path is split where its accelerations change first, so every piece the quadrature sees is smooth.
+ * Headings are checked at the end of each path, where it should be facing deltaTheta with omega 0.
+ * 
+ * Sweeps the parameter space the solver uses, and prints the max end heading and omega error, and the max and rms
+ * position error and the nanoseconds per {@link Path#position(double, Point)} for each engine. Nanoseconds depend on the
+ * machine, so the time is checked as a multiple of how long one cos and one sin take in the same run. If any error or
+ * that multiple is over its threshold, it exits with 1, so it can be run as a check after changing the kernels or how
+ * paths are built. Thresholds can be set with -Dbadlib.accuracy.heading (radians, for both the end heading and end omega,
+ * default 1e-9), -Dbadlib.accuracy.position (inches, default 1e-8) and -Dbadlib.accuracy.cost (default 10).
+ * Run it as a plain main method, it doesn't need JMH.
+ */
+public class PathAccuracy {
+	
+	private static final double MAX_HEADING_ERROR = Double.parseDouble(System.getProperty("badlib.accuracy.heading", "1e-9"));
+	private static final double MAX_POSITION_ERROR = Double.parseDouble(System.getProperty("badlib.accuracy.position", "1e-8"));
+	// Most a position may take, as a multiple of the time for one cos and one sin. Both engines measure 3 to 6.
+	private static final double MAX_COST = Double.parseDouble(System.getProperty("badlib.accuracy.cost", "10"));
+	
+	private static final double[] OMEGA1S = {0.5, 0.75, 0.95, 1.5, 2.3, 3.0};
+	private static final double[] OMEGA2S = {-1.0, 0.5, 0.75, 1.8, 2.5};
+	private static final double[] MIDDLE_TIMES = {0.2666, 0.6, 1.0};
+	private static final double[][] SPEEDS = {{0, 20, 0}, {0, 20, 20}, {5, 20, 10}, {10, 30, 5}};
+	private static final double[] DELTA_THETAS = {0.5, Math.PI/4, Math.PI/2 - 0.2, Math.PI};
+	private static final double[][] COASTS = {{0, 0, 0, 0, 0}, {0.2, 0.3, 0.5, 0, 0}, {0.1, 0.2, 0.1, 0.1, 0.1}};
+	
+	private static final int TIMES = 64;
+	private static final int TIMING_ROUNDS = 20;
+	
+	// Steps used to find where a path's accelerations change, before narrowing each one down
+	private static final int SCAN = 4096;
+	
+	// Gauss-Kronrod 7-15 nodes on [0, 1] of [-1, 1], and the weights of both rules
+	private static final double[] NODES = {
+		0.991455371120812639206854697526329, 0.949107912342758524526189684047851,
+		0.864864423359769072789712788640926, 0.741531185599394439863864773280788,
+		0.586087235467691130294144845693013, 0.405845151377397166906606412076961,
+		0.207784955007898467600689403773245, 0
+	};
+	private static final double[] KRONROD = {
+		0.022935322010529224963732008058970, 0.063092092629978553290700663189204,
+		0.104790010322250183839876322541518, 0.140653259715525918745189590510238,
+		0.169004726639267902826583426598550, 0.190350578064785409913256402421014,
+		0.204432940075298892414161999234649, 0.209482141084727828012999174891714
+	};
+	private static final double[] GAUSS = {
+		0, 0.129484966168869693270611432679082, 0, 0.279705391489276667901467771423780,
+		0, 0.381830050505118944950369775488975, 0, 0.417959183673469387755102040816327
+	};
+	private static final double TOLERANCE = 1e-13;
+	private static final int MAX_DEPTH = 40;
+	
+	public static void main(String[] args) {
+		List<Double> deltaThetas = new ArrayList<Double>();
+		List<Path> paths = paths(Series.TAYLOR, deltaThetas);
+		System.out.printf("%d paths, %d times each%n", paths.size(), TIMES);
+		
+		// Headings don't depend on the engine either
+		double maxHeading = 0, maxOmega = 0;
+		int wrongEnds = 0;
+		for (int i = 0; i < paths.size(); i++) {
+			Path path = paths.get(i);
+			double T = path.duration();
+			double heading = Math.abs(path.angle(T) - deltaThetas.get(i));
+			double omega = Math.abs(path.omega(T));
+			maxHeading = Math.max(maxHeading, heading);
+			maxOmega = Math.max(maxOmega, omega);
+			if (!(heading <= MAX_HEADING_ERROR) || !(omega <= MAX_HEADING_ERROR)) {
+				wrongEnds++;
+			}
+		}
+		System.out.printf("end heading max %.3e, end omega max %.3e, %d paths don't end facing deltaTheta with omega 0%n",
+				maxHeading, maxOmega, wrongEnds);
+		boolean failed = wrongEnds > 0;
+		if (failed) {
+			System.out.printf("end heading or omega is over %.3e%n", MAX_HEADING_ERROR);
+		}
+		
+		// The true positions don't depend on the engine, so they're found once
+		double[][] times = new double[paths.size()][TIMES];
+		double[][] xs = new double[paths.size()][TIMES];
+		double[][] ys = new double[paths.size()][TIMES];
+		for (int i = 0; i < paths.size(); i++) {
+			truth(paths.get(i), times[i], xs[i], ys[i]);
+		}
+		
+		double cosSin = nanosPerCosSin(times);
+		System.out.printf("%.1f ns per cos and sin%n", cosSin);
+		for (Series series : Series.values()) {
+			List<Path> engine = paths(series, null);
+			double maxPosition = 0, positionSquares = 0;
+			Point dest = new Point();
+			
+			for (int i = 0; i < engine.size(); i++) {
+				Path path = engine.get(i);
+				for (int j = 0; j < TIMES; j++) {
+					path.position(times[i][j], dest);
+					double position = Math.hypot(dest.x - xs[i][j], dest.y - ys[i][j]);
+					maxPosition = Math.max(maxPosition, position);
+					positionSquares += position * position;
+				}
+			}
+			
+			int count = engine.size() * TIMES;
+			double nanos = nanosPerPosition(engine, times);
+			System.out.printf("%-8s position max %.3e in, rms %.3e in; %.0f ns per position, %.1f times a cos and sin%n",
+					series, maxPosition, Math.sqrt(positionSquares / count), nanos, nanos / cosSin);
+			
+			failed |= over(series, "position error", maxPosition, MAX_POSITION_ERROR);
+			failed |= over(series, "cost per position", nanos / cosSin, MAX_COST);
+		}
+		
+		if (failed) {
+			System.exit(1);
+		}
+	}
+	
+	private static boolean over(Series series, String name, double value, double threshold) {
+		if (value > threshold || Double.isNaN(value)) {
+			System.out.printf("%s %s %.3e is over %.3e%n", series, name, value, threshold);
+			return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Every valid path in the sweep that ends, made with the engine. Only the kernels depend on the engine,
+	 * so every engine gets the same paths in the same order, with the same speeds and omegas.
+	 * 
+	 * @param deltaThetas Where to add each path's deltaTheta, or null
+	 */
+	private static List<Path> paths(IntegrationEngine engine, List<Double> deltaThetas) {
+		List<Path> paths = new ArrayList<Path>();
+		for (double omega1 : OMEGA1S) {
+			for (double omega2 : OMEGA2S) {
+				for (double middleTime : MIDDLE_TIMES) {
+					for (double[] speeds : SPEEDS) {
+						for (double deltaTheta : DELTA_THETAS) {
+							for (double[] coasts : COASTS) {
+								if (!Path.feasibility(omega1, omega2, middleTime, speeds[0], speeds[1], speeds[2], coasts[0], coasts[1],
+										coasts[2], coasts[3], coasts[4], deltaTheta).isValid()) {
+									continue;
+								}
+								Path path = new Path(omega1, omega2, middleTime, speeds[0], speeds[1], speeds[2], coasts[0], coasts[1],
+										coasts[2], coasts[3], coasts[4], deltaTheta, engine);
+								if (Double.isFinite(path.duration())) {
+									paths.add(path);
+									if (deltaThetas != null) {
+										deltaThetas.add(deltaTheta);
+									}
+								}
+							}
+						}
+					}
+				}
+			}
+		}
+		return paths;
+	}
+	
+	/**
+	 * How long one {@link Math#cos(double)} and one {@link Math#sin(double)} take, timed the same way as a position,
+	 * over the same times, so the cost of a position can be given in something that doesn't depend on the machine.
+	 */
+	private static double nanosPerCosSin(double[][] times) {
+		double sum = 0;
+		long best = Long.MAX_VALUE;
+		for (int round = 0; round < TIMING_ROUNDS; round++) {
+			long start = System.nanoTime();
+			for (int i = 0; i < times.length; i++) {
+				for (int j = 0; j < TIMES; j++) {
+					double angle = times[i][j] * 0.7 + i;
+					sum += Math.cos(angle) + Math.sin(angle);
+				}
+			}
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		if (sum == 0) {
+			System.out.println();
+		}
+		return (double) best / (times.length * TIMES);
+	}
+	
+	private static double nanosPerPosition(List<Path> paths, double[][] times) {
+		Point dest = new Point();
+		double sum = 0;
+		long best = Long.MAX_VALUE;
+		// The fastest round, so the JIT and anything else running count as little as possible
+		for (int round = 0; round < TIMING_ROUNDS; round++) {
+			long start = System.nanoTime();
+			for (int i = 0; i < paths.size(); i++) {
+				Path path = paths.get(i);
+				for (int j = 0; j < TIMES; j++) {
+					path.position(times[i][j], dest);
+					sum += dest.x;
+				}
+			}
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		if (sum == 0) {
+			System.out.println();
+		}
+		return (double) best / (paths.size() * TIMES);
+	}
+	
+	/**
+	 * Finds the true position at evenly spaced times over the path, integrating from each time to the next,
+	 * one smooth piece at a time.
+	 */
+	private static void truth(Path path, double[] times, double[] xs, double[] ys) {
+		double[] breaks = breaks(path);
+		double x = 0, y = 0;
+		double last = 0;
+		int next = 0;
+		for (int j = 0; j < TIMES; j++) {
+			double t = path.duration() * j / (TIMES - 1);
+			while (last < t) {
+				double end = t;
+				if (next < breaks.length && breaks[next] <= t) {
+					end = breaks[next];
+					next++;
+				}
+				x += integrate(path, 0, last, end, 0);
+				y += integrate(path, 1, last, end, 0);
+				last = end;
+			}
+			times[j] = t;
+			xs[j] = x;
+			ys[j] = y;
+		}
+	}
+	
+	/**
+	 * @return Times inside the path where either acceleration changes, in order
+	 */
+	private static double[] breaks(Path path) {
+		double T = path.duration();
+		List<Double> found = new ArrayList<Double>();
+		double last = 0;
+		for (int i = 1; i <= SCAN; i++) {
+			double t = T * i / SCAN;
+			if (path.angularAcceleration(t) != path.angularAcceleration(last) || path.linearAcceleration(t) != path.linearAcceleration(last)) {
+				// Narrow it down to where the accelerations stop matching the ones at last
+				double low = last, high = t;
+				while (high - low > 1e-15 * T && Math.nextUp(low) < high) {
+					double middle = (low + high) / 2;
+					if (path.angularAcceleration(middle) == path.angularAcceleration(low)
+							&& path.linearAcceleration(middle) == path.linearAcceleration(low)) {
+						low = middle;
+					} else {
+						high = middle;
+					}
+				}
+				found.add(high);
+			}
+			last = t;
+		}
+		
+		double[] breaks = new double[found.size()];
+		for (int i = 0; i < breaks.length; i++) {
+			breaks[i] = found.get(i);
+		}
+		return breaks;
+	}
+	
+	/**
+	 * Adaptive Gauss-Kronrod 7-15 over [a, b].
+	 * 
+	 * @param part 0 for x, 1 for y
+	 */
+	private static double integrate(Path path, int part, double a, double b, int depth) {
+		double center = (a + b) / 2;
+		double half = (b - a) / 2;
+		double kronrod = KRONROD[7] * f(path, part, center);
+		double gauss = GAUSS[7] * f(path, part, center);
+		for (int i = 0; i < 7; i++) {
+			double sum = f(path, part, center - half * NODES[i]) + f(path, part, center + half * NODES[i]);
+			kronrod += KRONROD[i] * sum;
+			gauss += GAUSS[i] * sum;
+		}
+		kronrod *= half;
+		gauss *= half;
+		
+		if (Math.abs(kronrod - gauss) <= TOLERANCE * Math.max(1, Math.abs(kronrod)) || depth >= MAX_DEPTH) {
+			return kronrod;
+		}
+		return integrate(path, part, a, center, depth + 1) + integrate(path, part, center, b, depth + 1);
+	}
+	
+	private static double f(Path path, int part, double t) {
+		switch (part) {
+			case 0:
+				return path.speed(t) * Math.cos(path.angle(t));
+			default:
+				return path.speed(t) * Math.sin(path.angle(t));
+		}
+	}
+	
+}
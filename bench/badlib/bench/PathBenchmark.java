@@ -0,0 +1,182 @@
+package badlib.bench;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import badlib.Path;
+import badlib.PathData;
+import badlib.Period;
+import badlib.Point;
+import badlib.TrajectorySample;
+
+/**
+ * Benchmarks for building a {@link Path} and querying it. The parameters cover the same
+ * omega, speed and deltaTheta ranges that XYChartPlotter draws, all of which make valid paths.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathBenchmark {
+	
+	private static final int TIMES = 256;
+
+	@Param({"0.5", "0.75", "0.95"})
+	public double omega1;
+	
+	@Param({"10", "20", "30"})
+	public double wantedSpeed;
+	
+	@Param({"0.7853981633974483", "1.3707963267948966"})
+	public double deltaTheta;
+	
+	public double omega2 = 0.75;
+	public double middleTime = 0.6;
+	
+	private Path path;
+	private Path reused;
+	private Period[] periods;
+	private double[] times;
+	private int next;
+	
+	private double[] sortedTimes;
+	private final double[] xs = new double[TIMES];
+	private final double[] ys = new double[TIMES];
+	
+	private final Point a = new Point();
+	private final Point b = new Point();
+	
+	@Setup
+	public void setup() {
+		path = new Path(omega1, omega2, middleTime, 0, wantedSpeed, 0, 0.2, 0.3, 0.5, 0, 0, deltaTheta);
+		reused = new Path(omega1, omega2, middleTime, 0, wantedSpeed, 0, 0.2, 0.3, 0.5, 0, 0, deltaTheta);
+		
+		// PathData doesn't change its periods, so the same ones can be used every time
+		periods = new Period[] {
+			new Period(0.2, 0, true),
+			new Period(omega1/Path.ANGLE_MAX_ACCEL, Path.ANGLE_MAX_ACCEL, true),
+			new Period(middleTime, (omega2-omega1)/middleTime, true),
+			new Period(0.3, -Path.ANGLE_MAX_ACCEL, true),
+			new Period(wantedSpeed/Path.POSITION_MAX_ACCEL, Path.POSITION_MAX_ACCEL, false),
+			new Period(0.4, 0, false),
+			new Period(wantedSpeed/Path.POSITION_MAX_ACCEL, -Path.POSITION_MAX_ACCEL, false)
+		};
+		
+		// Spread the query times over the whole path, so every kind of segment is measured
+		times = new double[TIMES];
+		for (int i = 0; i < TIMES; i++) {
+			times[i] = path.duration() * ((i * 97) % TIMES) / TIMES;
+		}
+		
+		// The same times in order, like a trajectory
+		sortedTimes = new double[TIMES];
+		for (int i = 0; i < TIMES; i++) {
+			sortedTimes[i] = path.duration() * i / TIMES;
+		}
+	}
+	
+	private double nextTime() {
+		next = (next + 1) & (TIMES - 1);
+		return times[next];
+	}
+	
+	@Benchmark
+	public Path construct12() {
+		return new Path(omega1, omega2, middleTime, 0, wantedSpeed, 0, 0.2, 0.3, 0.5, 0, 0, deltaTheta);
+	}
+	
+	@Benchmark
+	public Path construct7() {
+		return new Path(omega1, omega2, middleTime, 0, wantedSpeed, wantedSpeed, deltaTheta);
+	}
+	
+	/**
+	 * The same path as {@link #construct12()}, made again in place. Run with -prof gc to see it doesn't allocate.
+	 */
+	@Benchmark
+	public Path reset12() {
+		reused.reset(omega1, omega2, middleTime, 0, wantedSpeed, 0, 0.2, 0.3, 0.5, 0, 0, deltaTheta);
+		return reused;
+	}
+	
+	@Benchmark
+	public boolean validParameters() {
+		return Path.validParameters(omega1, omega2, middleTime, 0, wantedSpeed, wantedSpeed, deltaTheta);
+	}
+	
+	@Benchmark
+	public PathData pathData() {
+		return new PathData(0, periods);
+	}
+	
+	@Benchmark
+	public Point position() {
+		path.position(nextTime(), a);
+		return a;
+	}
+	
+	@Benchmark
+	public double[] positionArray() {
+		path.position(nextTime(), xs, 0);
+		return xs;
+	}
+	
+	/**
+	 * Every position along the path one at a time, to compare with {@link #positions()}
+	 */
+	@Benchmark
+	public double[] positionEach() {
+		for (int i = 0; i < TIMES; i++) {
+			path.position(sortedTimes[i], a);
+			xs[i] = a.x;
+			ys[i] = a.y;
+		}
+		return xs;
+	}
+	
+	@Benchmark
+	public double[] positions() {
+		path.positions(sortedTimes, xs, ys, TIMES);
+		return xs;
+	}
+	
+	/**
+	 * The same trajectory as {@link #positions()}, with everything about every sample
+	 */
+	@Benchmark
+	public double iterator() {
+		double sum = 0;
+		Iterator<TrajectorySample> samples = path.iterator(0, path.duration() / TIMES, TIMES);
+		while (samples.hasNext()) {
+			sum += samples.next().leftX;
+		}
+		return sum;
+	}
+	
+	@Benchmark
+	public Point wheelPositions() {
+		path.wheelPositions(nextTime(), a, b);
+		return b;
+	}
+	
+	@Benchmark
+	public Point wheelDistances() {
+		path.wheelDistances(nextTime(), a);
+		return a;
+	}
+	
+}
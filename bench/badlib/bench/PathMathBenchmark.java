@@ -0,0 +1,128 @@
+package badlib.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import badlib.FresnelKernel;
+import badlib.IntegrationKernel;
+import badlib.PathMath;
+import badlib.Point;
+import badlib.Series;
+import badlib.TaylorKernel;
+
+/**
+ * Benchmarks for each of the series in {@link PathMath}, and for both {@link TaylorKernel} and {@link FresnelKernel}.
+ * Angular accelerations go from {@link badlib.Path#ANGLE_MAX_ACCEL} down to the slower ones used to change
+ * between omega1 and omega2, and omegas cover the range XYChartPlotter uses.
+ * {@link KernelAccuracy} compares how accurate the kernels are over the same ranges.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathMathBenchmark {
+	
+	private static final int TIMES = 256;
+
+	@Param({"6.283185307179586", "-6.283185307179586", "1.0"})
+	public double alpha;
+	
+	@Param({"0.5", "1.5", "2.3"})
+	public double omega;
+	
+	@Param({"TAYLOR", "FRESNEL"})
+	public Series series;
+	
+	private IntegrationKernel kernel;
+	private double[] times;
+	private int next;
+	
+	private final Point dest = new Point();
+	
+	@Setup
+	public void setup() {
+		kernel = series.kernel(alpha, omega);
+		PathMath.ENGINE = series;
+		
+		times = new double[TIMES];
+		for (int i = 0; i < TIMES; i++) {
+			times[i] = 0.5 * ((i * 97) % TIMES) / TIMES;
+		}
+	}
+	
+	private double nextTime() {
+		next = (next + 1) & (TIMES - 1);
+		return times[next];
+	}
+	
+	@Benchmark
+	public IntegrationKernel kernel() {
+		return series.kernel(alpha, omega);
+	}
+	
+	@Benchmark
+	public double cI1() {
+		return kernel.cI1(nextTime());
+	}
+	
+	@Benchmark
+	public double cI2() {
+		return kernel.cI2(nextTime());
+	}
+	
+	@Benchmark
+	public double sI1() {
+		return kernel.sI1(nextTime());
+	}
+	
+	@Benchmark
+	public double sI2() {
+		return kernel.sI2(nextTime());
+	}
+	
+	@Benchmark
+	public double cI1S() {
+		return PathMath.cI1S(nextTime(), omega);
+	}
+	
+	@Benchmark
+	public double cI2S() {
+		return PathMath.cI2S(nextTime(), omega);
+	}
+	
+	@Benchmark
+	public double sI1S() {
+		return PathMath.sI1S(nextTime(), omega);
+	}
+	
+	@Benchmark
+	public double sI2S() {
+		return PathMath.sI2S(nextTime(), omega);
+	}
+	
+	@Benchmark
+	public Point integrate() {
+		PathMath.integrate(nextTime(), alpha, omega, 50, 10, kernel, dest);
+		return dest;
+	}
+	
+	@Benchmark
+	public Point integrateUncached() {
+		PathMath.integrate(nextTime(), alpha, omega, 50, 10, dest);
+		return dest;
+	}
+	
+}
@@ -0,0 +1,71 @@
+package badlib.bench;
+
+import java.lang.management.ManagementFactory;
+
+import badlib.Path;
+import badlib.Series;
+
+/**
+ * Checks that {@link Path#reset(double, double, double, double, double, double, double, double, double, double, double, double)}
+ * doesn't allocate once it's warmed up, by counting the bytes this thread allocates while resetting one path over and
+ * over with different parameters. Exits with 1 if any were allocated, so it can be run as a check.
+ * Run it as a plain main method, it doesn't need JMH. Needs a JVM with com.sun.management, like HotSpot.
+ */
+public class ResetAllocation {
+	
+	// omega1, omega2, middleTime, startSpeed, wantedSpeed, endSpeed, deltaTheta, all valid paths
+	private static final double[][] PARAMETERS = {
+		{0.5, 0.75, 0.6, 0, 20, 0, Math.PI/4},
+		{0.95, 0.75, 0.6, 0, 30, 0, Math.PI/2 - 0.2},
+		{0.75, 0.5, 0.6, 5, 20, 10, Math.PI/4},
+		{-0.95, -0.75, 0.6, 5, 20, 10, -Math.PI/4},
+	};
+	private static final int WARMUP = 200;
+	private static final int RESETS = 100000;
+	private static final int ROUNDS = 3;
+	
+	public static void main(String[] args) {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long thread = Thread.currentThread().getId();
+		boolean failed = false;
+		
+		for (Series series : Series.values()) {
+			double[] first = PARAMETERS[0];
+			Path path = new Path(first[0], first[1], first[2], first[3], first[4], first[5], 
+					0.2, 0.3, 0.5, 0, 0, first[6], series);
+			
+			// In short calls, so the loop gets compiled as a method instead of on stack
+			for (int i = 0; i < WARMUP; i++) {
+				reset(path, 1000);
+			}
+			
+			// The first rounds also count the JVM setting up the counters and the timer, so only the last one is kept
+			long bytes = 0, time = 0;
+			for (int round = 0; round < ROUNDS; round++) {
+				long before = threads.getThreadAllocatedBytes(thread);
+				long start = System.nanoTime();
+				reset(path, RESETS);
+				time = System.nanoTime() - start;
+				bytes = threads.getThreadAllocatedBytes(thread) - before;
+			}
+			
+			System.out.printf("%s: %d bytes over %d resets, %.0f ns each%n", series, bytes, RESETS, (double) time / RESETS);
+			if (bytes != 0) {
+				failed = true;
+			}
+		}
+		
+		if (failed) {
+			System.out.println("reset allocated");
+			System.exit(1);
+		}
+	}
+	
+	private static void reset(Path path, int times) {
+		for (int i = 0; i < times; i++) {
+			double[] p = PARAMETERS[i % PARAMETERS.length];
+			path.reset(p[0], p[1], p[2], p[3], p[4], p[5], 0.2, 0.3, 0.5, 0, 0, p[6]);
+		}
+	}
+	
+}
@@ -0,0 +1,246 @@
+package badlib.bench;
+
+import java.util.Random;
+
+import badlib.Point;
+import badlib.TaylorKernel;
+
+/**
+ * Compares {@link TaylorKernel} with the series PathMath used before it, which recomputed every term with
+ * {@link Math#pow(double, double)} and a factorial on each call. That series is kept here, as {@link PowSeries},
+ * so there is always something to check the kernel against.
+ * 
+ * The old series only had 8 terms, so it's only as good as doubles can be while u = sqrtA*x + addConstant stays
+ * within 1. Differences are checked there, and only printed for bigger u, where most of the difference is the old
+ * series being wrong. It also prints how long finding one position takes each way. If the largest difference where
+ * it's checked is over -Dbadlib.series.difference, it exits with 1, so it can be run as a check. The default, 1e-10, leaves room for
+ * the kernel only being asked for PathMath.TOLERANCE in each series, which 1/sqrtA and 2/a make bigger for small angular accelerations.
+ * Run it as a plain main method, it doesn't need JMH.
+ */
+public class SeriesAccuracy {
+	
+	private static final double MAX_DIFFERENCE = Double.parseDouble(System.getProperty("badlib.series.difference", "1e-10"));
+	
+	private static final int SEGMENTS = 200000;
+	private static final double CHECKED = 1;
+	private static final double LARGEST = 3;
+	private static final int TIMING_ROUNDS = 10;
+	
+	public static void main(String[] args) {
+		Random random = new Random(42);
+		double[] as = new double[SEGMENTS];
+		double[] bs = new double[SEGMENTS];
+		double[] ts = new double[SEGMENTS];
+		double[] pAs = new double[SEGMENTS];
+		double[] ss = new double[SEGMENTS];
+		
+		double checked = 0, unchecked = 0;
+		int count = 0;
+		PowSeries old = new PowSeries();
+		Point dest = new Point();
+		while (count < SEGMENTS) {
+			double a = (random.nextBoolean() ? 1 : -1) * (0.05 + 2*Math.PI * random.nextDouble());
+			double b = -3 + 6 * random.nextDouble();
+			double t = 1.5 * random.nextDouble();
+			old.set(a, b);
+			double u = old.sqrtA * t + old.addConstant;
+			if (Math.abs(u) > LARGEST || Math.abs(old.addConstant) > LARGEST) {
+				continue;
+			}
+			
+			as[count] = a;
+			bs[count] = b;
+			ts[count] = t;
+			pAs[count] = -50 + 100 * random.nextDouble();
+			ss[count] = 30 * random.nextDouble();
+			
+			TaylorKernel kernel = new TaylorKernel(a, b);
+			double difference = Math.max(
+					Math.max(relative(kernel.cI1(t), old.cI1(t)), relative(kernel.cI2(t), old.cI2(t))),
+					Math.max(relative(kernel.sI1(t), old.sI1(t)), relative(kernel.sI2(t), old.sI2(t))));
+			kernel.integrate(t, pAs[count], ss[count], dest);
+			double x = dest.x, y = dest.y;
+			old.integrate(t, pAs[count], ss[count], dest);
+			difference = Math.max(difference, Math.max(relative(x, dest.x), relative(y, dest.y)));
+			
+			if (Math.abs(u) <= CHECKED && Math.abs(old.addConstant) <= CHECKED) {
+				checked = Math.max(checked, difference);
+			} else {
+				unchecked = Math.max(unchecked, difference);
+			}
+			count++;
+		}
+		
+		System.out.printf("max relative difference %.3e where |u| <= %.0f, %.3e where |u| <= %.0f (not checked)%n",
+				checked, CHECKED, unchecked, LARGEST);
+		
+		double before = nanosPerPosition(true, as, bs, ts, pAs, ss);
+		double after = nanosPerPosition(false, as, bs, ts, pAs, ss);
+		System.out.printf("per position: %.0f ns with Math.pow, %.0f ns with TaylorKernel, %.0fx faster%n", before, after, before / after);
+		
+		if (checked > MAX_DIFFERENCE || Double.isNaN(checked)) {
+			System.out.printf("difference %.3e is over %.3e%n", checked, MAX_DIFFERENCE);
+			System.exit(1);
+		}
+	}
+	
+	/**
+	 * @return How far apart a and b are, relative to b, or just how far apart if b is less than 1
+	 */
+	private static double relative(double a, double b) {
+		return Math.abs(a - b) / Math.max(1, Math.abs(b));
+	}
+	
+	/**
+	 * Finds every position, the old way or with a kernel made once per segment, the way a path uses them.
+	 * The kernels are made before timing, since a path only makes them once.
+	 * 
+	 * @return Nanoseconds per position in the fastest round
+	 */
+	private static double nanosPerPosition(boolean pow, double[] as, double[] bs, double[] ts, double[] pAs, double[] ss) {
+		TaylorKernel[] kernels = new TaylorKernel[as.length];
+		for (int i = 0; i < kernels.length; i++) {
+			kernels[i] = new TaylorKernel(as[i], bs[i]);
+		}
+		
+		PowSeries old = new PowSeries();
+		Point dest = new Point();
+		double sum = 0;
+		long best = Long.MAX_VALUE;
+		for (int round = 0; round < TIMING_ROUNDS; round++) {
+			long start = System.nanoTime();
+			for (int i = 0; i < as.length; i++) {
+				if (pow) {
+					old.set(as[i], bs[i]);
+					old.integrate(ts[i], pAs[i], ss[i], dest);
+				} else {
+					kernels[i].integrate(ts[i], pAs[i], ss[i], dest);
+				}
+				sum += dest.x;
+			}
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		if (sum == 0) {
+			System.out.println();
+		}
+		return (double) best / as.length;
+	}
+	
+	/**
+	 * The Taylor series's PathMath used before {@link TaylorKernel}, as they were, except that the
+	 * constants are kept in an instance instead of static fields.
+	 */
+	private static class PowSeries {
+		
+		private static final int TAYLOR_TERMS = 7;
+		private static final int TAYLOR_TERMS_OBOB = TAYLOR_TERMS+1; //+1 for OBOB
+		
+		double sqrtA, invSqrtA, invA, addConstant;
+		int sign;
+		
+		void set(double a, double b) {
+			sign = (int) Math.signum(a);
+			a = Math.abs(a);
+			sqrtA = Math.sqrt(a/2);
+			invSqrtA = 1/sqrtA;
+			invA = 2 / a;
+			addConstant = sign*b/(2*sqrtA);
+		}
+		
+		double cI1(double x) {
+			double sum = 0;
+			int termSign = 1;
+			for (int i = 0; i < TAYLOR_TERMS_OBOB; i++) {
+				long outer = termSign * ((4*i+1) * factorial(2*i));
+				termSign *= -1;
+				
+				double inner = Math.pow(sqrtA * x + addConstant, 4*i+1) - Math.pow(addConstant, 4*i+1);
+				
+				double term = inner / outer;
+				sum += term;
+			}
+			
+			sum *= invSqrtA;
+			return sum;
+		}
+		
+		double cI2(double x) {
+			double sum = 0;
+			double c = 0;
+			int termSign = 1;
+			for (int i = 0; i < TAYLOR_TERMS_OBOB; i++) {
+				long outer = termSign * ((4*i+1) * factorial(2*i));
+				c += Math.pow(addConstant, 4*i+1) / outer;
+				
+				outer = outer * (4*i+2);
+				termSign *= -1;
+				
+				double inner = Math.pow(sqrtA * x + addConstant, 4*i+2) - Math.pow(addConstant, 4*i+2);
+				
+				double term = inner / outer;
+				sum += term;
+			}
+			
+			sum *= invA;
+			c *= invSqrtA * x;
+			
+			return sum - c;
+		}
+		
+		double sI1(double x) {
+			double sum = 0;
+			int termSign = 1;
+			for (int i = 0; i < TAYLOR_TERMS_OBOB; i++) {
+				long outer = termSign * ((4*i+3) * factorial(2*i+1));
+				termSign *= -1;
+				
+				double inner = Math.pow(sqrtA * x + addConstant, 4*i+3) - Math.pow(addConstant, 4*i+3);
+				
+				double term = inner / outer;
+				sum += term;
+			}
+			
+			sum *= sign * invSqrtA;
+			return sum;
+		}
+		
+		double sI2(double x) {
+			double sum = 0;
+			double c = 0;
+			int termSign = 1;
+			for (int i = 0; i < TAYLOR_TERMS_OBOB; i++) {
+				long outer = termSign * ((4*i+3) * factorial(2*i+1));
+				c += Math.pow(addConstant, 4*i+3) / outer;
+				
+				outer = outer * (4*i+4);
+				termSign *= -1;
+				
+				double inner = Math.pow(sqrtA * x + addConstant, 4*i+4) - Math.pow(addConstant, 4*i+4);
+				
+				double term = inner / outer;
+				sum += term;
+			}
+			
+			sum *= sign * invA;
+			c *= sign * invSqrtA * x;
+			
+			return sum - c;
+		}
+		
+		void integrate(double t, double pA, double s, Point dest) {
+			dest.x = (t*pA + s) * cI1(t) - pA * cI2(t);
+			dest.y = (t*pA + s) * sI1(t) - pA * sI2(t);
+		}
+		
+		static long factorial(int n) {
+			long result = 1;
+			for (int i = 1; i <= n; i++) {
+				result *= i;
+			}
+			
+			return result;
+		}
+		
+	}
+	
+}
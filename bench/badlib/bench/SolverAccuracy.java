@@ -0,0 +1,76 @@
+package badlib.bench;
+
+import java.util.Random;
+
+import badlib.Path;
+import badlib.PathSolution;
+import badlib.PathSolver;
+import badlib.Point;
+
+/**
+ * Checks that the paths {@link PathSolver} finds really end where they were asked to: at the point, facing deltaAngle,
+ * and not turning any more. Each target is the end of a random valid path, so there is always some path that reaches it.
+ * Targets the solver doesn't converge on are only counted, since it isn't sure to find every path, but every solution it
+ * says converged has to be within {@link PathSolver#TOLERANCE} of the point and {@link PathSolver#ANGLE_TOLERANCE} of
+ * deltaAngle and omega 0. Exits with 1 if any isn't, so it can be run as a check.
+ * Run it as a plain main method, it doesn't need JMH.
+ */
+public class SolverAccuracy {
+	
+	private static final int TARGETS = 200;
+	private static final double[][] SPEEDS = {{0, 20}, {5, 20}, {10, 30}};
+	
+	public static void main(String[] args) {
+		Random random = new Random(42);
+		Point dest = new Point();
+		int targets = 0, converged = 0, wrong = 0;
+		double maxPosition = 0, maxAngle = 0, maxOmega = 0;
+		
+		while (targets < TARGETS) {
+			double sign = random.nextBoolean() ? 1 : -1;
+			double omega1 = sign * (0.2 + 2.8 * random.nextDouble());
+			double omega2 = sign * (0.2 + 2.8 * random.nextDouble());
+			double middleTime = 0.1 + 1.4 * random.nextDouble();
+			double deltaTheta = sign * (0.2 + 3 * random.nextDouble());
+			double[] speeds = SPEEDS[random.nextInt(SPEEDS.length)];
+			Path target = Path.tryCreate(omega1, omega2, middleTime, speeds[0], speeds[1], speeds[1], deltaTheta);
+			if (target == null || !Double.isFinite(target.duration())) {
+				continue;
+			}
+			target.position(target.duration(), dest);
+			targets++;
+			
+			PathSolution solution = PathSolver.solve(speeds[0], speeds[1], deltaTheta, dest, null);
+			if (!solution.converged) {
+				continue;
+			}
+			converged++;
+			
+			Path path = solution.path;
+			double T = path.duration();
+			Point end = new Point();
+			path.position(T, end);
+			double position = Math.hypot(end.x - dest.x, end.y - dest.y);
+			double angle = Math.abs(path.angle(T) - deltaTheta);
+			double omega = Math.abs(path.omega(T));
+			maxPosition = Math.max(maxPosition, position);
+			maxAngle = Math.max(maxAngle, angle);
+			maxOmega = Math.max(maxOmega, omega);
+			
+			if (!(position <= PathSolver.TOLERANCE) || !(angle <= PathSolver.ANGLE_TOLERANCE) || !(omega <= PathSolver.ANGLE_TOLERANCE)) {
+				wrong++;
+				System.out.printf("omega1 %.6f, omega2 %.6f, middleTime %.6f, deltaTheta %.6f ends %.3e in away, facing %.6f, omega %.6f%n",
+						solution.omega1, solution.omega2, solution.middleTime, deltaTheta, position, path.angle(T), path.omega(T));
+			}
+		}
+		
+		System.out.printf("%d of %d targets converged; position max %.3e in, angle max %.3e, end omega max %.3e%n",
+				converged, targets, maxPosition, maxAngle, maxOmega);
+		
+		if (wrong > 0) {
+			System.out.printf("%d converged paths don't end where they should%n", wrong);
+			System.exit(1);
+		}
+	}
+	
+}
@@ -0,0 +1,50 @@
+package badlib;
+
+/**
+ * Whether a set of parameters can make a {@link Path}, and if not, the first reason it can't.
+ */
+public enum Feasibility {
+	
+	VALID("The path is valid"),
+	
+	/**
+	 * omega1 turns the opposite way from deltaTheta.
+	 */
+	WRONG_DIRECTION("You're trying to accelerate in the wrong direction!"),
+	
+	/**
+	 * Getting from omega2 back to 0 in the time left would take more than {@link Path#ANGLE_MAX_ACCEL}.
+	 */
+	DECELERATE_TOO_FAST("Trying to decelerate too fast!"),
+	
+	/**
+	 * Getting from omega1 to omega2 in middleTime would take more than {@link Path#ANGLE_MAX_ACCEL}.
+	 */
+	DIRECTION_CHANGE_TOO_FAST("Trying to change directions too fast!"),
+	
+	/**
+	 * The path is over before the speed can get to wantedSpeed and then to endSpeed at {@link Path#POSITION_MAX_ACCEL}.
+	 */
+	CANT_REACH_SPEED("Can't reach wantedSpeed in time!");
+	
+	private final String message;
+	
+	private Feasibility(String message) {
+		this.message = message;
+	}
+	
+	/**
+	 * @return True if a path can be made
+	 */
+	public boolean isValid() {
+		return this == VALID;
+	}
+	
+	/**
+	 * @return Description of the problem, for printing
+	 */
+	public String message() {
+		return message;
+	}
+	
+}
@@ -0,0 +1,300 @@
+package badlib;
+
+/**
+ * Does the same job as {@link TaylorKernel}, but always in the same amount of time.
+ * 
+ * Both kernels come down to F(u) = integral of e^(i*t^2) from 0 to u, a Fresnel integral, and G(u), its integral.
+ * F can be written as F(infinity) - e^(i*u^2) * A(u), where A is the auxiliary function of the Fresnel integral.
+ * A doesn't oscillate like F does, it just slowly shrinks towards 0, so it's easy to approximate:
+ * up to {@link #LAST} it's a Chebyshev series on each of a few pieces, and past that it's the first few terms
+ * of its asymptotic series. The Chebyshev coefficients are worked out when the class is loaded, from
+ * {@link TaylorKernel} with every term. G is then u*F minus something simple, so every call costs one Chebyshev series
+ * (or a few asymptotic terms) plus a cosine and a sine.
+ * 
+ * Like {@link TaylorKernel}, a kernel made outside of a {@link Path} never changes, but the ones a path makes for itself are
+ * rewritten in place, without locking, when the path is reset, so they're only safe to share while nothing resets it.
+ */
+public class FresnelKernel implements IntegrationKernel {
+	
+	private static final int PIECES = 8;
+	private static final double PIECE_WIDTH = 1;
+	private static final double LAST = PIECES * PIECE_WIDTH;
+	private static final int DEGREE = 16;
+	private static final int ASYMPTOTIC_TERMS = 16;
+	
+	private static final double F_INFINITY = Math.sqrt(Math.PI / 8);
+	
+	// Chebyshev coefficients of the real and imaginary parts of A on each piece, the first one already halved
+	private static final double[][] AR = new double[PIECES][DEGREE + 1];
+	private static final double[][] AI = new double[PIECES][DEGREE + 1];
+	
+	// Asymptotic series A(u) = sum of (DR[n] + i*DI[n]) / u^(2n+1)
+	private static final double[] DR = new double[ASYMPTOTIC_TERMS];
+	private static final double[] DI = new double[ASYMPTOTIC_TERMS];
+	
+	/**
+	 * Largest error in F or G found when checking the approximation against {@link TaylorKernel}, doubled to be safe
+	 */
+	private static final double ERROR;
+	
+	static {
+		int nodes = DEGREE + 1;
+		double[] valuesR = new double[nodes];
+		double[] valuesI = new double[nodes];
+		Point f = new Point();
+		Point g = new Point();
+		
+		for (int piece = 0; piece < PIECES; piece++) {
+			for (int m = 0; m < nodes; m++) {
+				double u = piece * PIECE_WIDTH + (Math.cos(Math.PI * (m + 0.5) / nodes) + 1) * PIECE_WIDTH / 2;
+				TaylorKernel.fresnel(u, f, g);
+				
+				// A = e^(-i*u^2) * (F(infinity) - F)
+				double dr = F_INFINITY - f.x;
+				double di = F_INFINITY - f.y;
+				double cos = Math.cos(u*u);
+				double sin = Math.sin(u*u);
+				valuesR[m] = dr*cos + di*sin;
+				valuesI[m] = di*cos - dr*sin;
+			}
+			
+			for (int k = 0; k <= DEGREE; k++) {
+				double sumR = 0, sumI = 0;
+				for (int m = 0; m < nodes; m++) {
+					double weight = Math.cos(Math.PI * k * (m + 0.5) / nodes);
+					sumR += valuesR[m] * weight;
+					sumI += valuesI[m] * weight;
+				}
+				AR[piece][k] = sumR * 2 / nodes;
+				AI[piece][k] = sumI * 2 / nodes;
+			}
+			AR[piece][0] /= 2;
+			AI[piece][0] /= 2;
+		}
+		
+		// The coefficients are (i/2) * (-i/2)^n * (2n-1)!!, whose factors of i go round i, 1, -i, -1
+		double size = 0.5;
+		for (int n = 0; n < ASYMPTOTIC_TERMS; n++) {
+			switch (n & 3) {
+				case 0: DI[n] = size; break;
+				case 1: DR[n] = size; break;
+				case 2: DI[n] = -size; break;
+				default: DR[n] = -size; break;
+			}
+			size *= (2*n + 1) / 2.0;
+		}
+		
+		// Check halfway between every pair of nodes, and past the end, where the asymptotic series is worst
+		double error = 0;
+		Point fa = new Point();
+		Point ga = new Point();
+		for (int i = 0; i <= PIECES * nodes * 4; i++) {
+			double u = i * (LAST + 1) / (PIECES * nodes * 4);
+			TaylorKernel.fresnel(u, f, g);
+			evaluate(u, 1, 0, fa);
+			evaluate(u, 0, 1, ga);
+			error = Math.max(error, Math.max(Math.abs(f.x - fa.x), Math.abs(f.y - fa.y)));
+			error = Math.max(error, Math.max(Math.abs(g.x - ga.x), Math.abs(g.y - ga.y)));
+		}
+		
+		// The first asymptotic term left out, at the start of the asymptotic part, bounds the rest of that part
+		double asymptotic = 2 * size / Math.pow(LAST, 2*ASYMPTOTIC_TERMS + 1) * LAST;
+		ERROR = 2 * Math.max(error, asymptotic);
+	}
+	
+	// Not final, so Path#reset can make a kernel into another one without allocating. See the top of the class about threads.
+	private double sqrtA, invSqrtA, invA, addConstant;
+	private int sign;
+	
+	// F and G at x = 0, which get subtracted off
+	private double c1, c2, s1, s2;
+	
+	/**
+	 * Calculates the constants needed for a segment.
+	 * 
+	 * @param a Angular acceleration (radians), must not be 0
+	 * @param b Initial angular velocity (radians)
+	 */
+	public FresnelKernel(double a, double b) {
+		set(a, b, new Point(), new Point());
+	}
+	
+	/**
+	 * Makes this kernel into the one {@link #FresnelKernel(double, double)} would make.
+	 * 
+	 * @param f Scratch space
+	 * @param g Scratch space
+	 */
+	void set(double a, double b, Point f, Point g) {
+		this.sign = (int) Math.signum(a);
+		a = Math.abs(a);
+		this.sqrtA = Math.sqrt(a/2);
+		this.invSqrtA = 1/sqrtA;
+		this.invA = 2 / a;
+		this.addConstant = sign*b/(2*sqrtA);
+		
+		evaluate(addConstant, 1, 0, f);
+		evaluate(addConstant, 0, 1, g);
+		this.c1 = f.x;
+		this.s1 = f.y;
+		this.c2 = g.x;
+		this.s2 = g.y;
+	}
+	
+	/**
+	 * Copies a kernel, but for the opposite angular acceleration and velocity.
+	 */
+	private FresnelKernel(FresnelKernel source) {
+		this.sign = -source.sign;
+		this.sqrtA = source.sqrtA;
+		this.invSqrtA = source.invSqrtA;
+		this.invA = source.invA;
+		this.addConstant = source.addConstant;
+		this.c1 = source.c1;
+		this.c2 = source.c2;
+		this.s1 = source.s1;
+		this.s2 = source.s2;
+	}
+	
+	/**
+	 * Same as {@link TaylorKernel#mirror()}, only the sine parts change sign.
+	 * 
+	 * @return Kernel for -a and -b
+	 */
+	@Override
+	public FresnelKernel mirror() {
+		return new FresnelKernel(this);
+	}
+	
+	/**
+	 * Finds alpha*F(u) + beta*G(u).
+	 * 
+	 * @param u
+	 * @param alpha Multiplier for F
+	 * @param beta Multiplier for G
+	 * @param dest Gets the cosine part as x and the sine part as y
+	 */
+	private static void evaluate(double u, double alpha, double beta, Point dest) {
+		evaluate(u, alpha, beta, dest, null, 0, null, 0);
+	}
+	
+	/**
+	 * Same as {@link #evaluate(double, double, double, Point)}, but if dest is null the cosine part goes
+	 * into xs at xIndex and the sine part into ys at yIndex instead.
+	 */
+	private static void evaluate(double u, double alpha, double beta, Point dest, double[] xs, int xIndex, double[] ys, int yIndex) {
+		double au = Math.abs(u);
+		
+		// F is odd, so G is even
+		if (u < 0) {
+			alpha = -alpha;
+		}
+		
+		double re, im;
+		if (au < LAST) {
+			// Clenshaw's method for the Chebyshev series of this piece
+			int piece = (int) (au / PIECE_WIDTH);
+			double t = 2 * (au - piece * PIECE_WIDTH) / PIECE_WIDTH - 1;
+			double[] ar = AR[piece], ai = AI[piece];
+			double br = 0, br2 = 0, bi = 0, bi2 = 0;
+			for (int k = DEGREE; k >= 1; k--) {
+				double nextR = 2*t*br - br2 + ar[k];
+				double nextI = 2*t*bi - bi2 + ai[k];
+				br2 = br;
+				bi2 = bi;
+				br = nextR;
+				bi = nextI;
+			}
+			re = t*br - br2 + ar[0];
+			im = t*bi - bi2 + ai[0];
+		} else {
+			double inverse2 = 1 / (au*au);
+			re = DR[ASYMPTOTIC_TERMS - 1];
+			im = DI[ASYMPTOTIC_TERMS - 1];
+			for (int n = ASYMPTOTIC_TERMS - 2; n >= 0; n--) {
+				re = re * inverse2 + DR[n];
+				im = im * inverse2 + DI[n];
+			}
+			re /= au;
+			im /= au;
+		}
+		
+		double cos = Math.cos(au*au);
+		double sin = Math.sin(au*au);
+		double fc = F_INFINITY - (re*cos - im*sin);
+		double fs = F_INFINITY - (re*sin + im*cos);
+		double cosPart = alpha * fc + beta * (au*fc - sin / 2);
+		double sinPart = alpha * fs + beta * (au*fs - (1 - cos) / 2);
+		
+		if (dest != null) {
+			dest.x = cosPart;
+			dest.y = sinPart;
+		} else {
+			xs[xIndex] = cosPart;
+			ys[yIndex] = sinPart;
+		}
+	}
+	
+	@Override
+	public double cI1(double x) {
+		Point f = new Point();
+		evaluate(sqrtA * x + addConstant, 1, 0, f);
+		return (f.x - c1) * invSqrtA;
+	}
+	
+	@Override
+	public double cI2(double x) {
+		Point g = new Point();
+		evaluate(sqrtA * x + addConstant, 0, 1, g);
+		return (g.x - c2) * invA - c1 * invSqrtA * x;
+	}
+	
+	@Override
+	public double sI1(double x) {
+		Point f = new Point();
+		evaluate(sqrtA * x + addConstant, 1, 0, f);
+		return (f.y - s1) * sign * invSqrtA;
+	}
+	
+	@Override
+	public double sI2(double x) {
+		Point g = new Point();
+		evaluate(sqrtA * x + addConstant, 0, 1, g);
+		return sign * ((g.y - s2) * invA - s1 * invSqrtA * x);
+	}
+	
+	@Override
+	public void integrate(double x, double pA, double s, Point dest) {
+		// v*cI1 - pA*cI2, with cI1 and cI2 written out in terms of F and G
+		double v = x*pA + s;
+		double alpha = v * invSqrtA;
+		double beta = -pA * invA;
+		evaluate(sqrtA * x + addConstant, alpha, beta, dest);
+		
+		dest.x += -alpha * c1 - beta * c2 + pA * c1 * invSqrtA * x;
+		dest.y = sign * (dest.y - alpha * s1 - beta * s2 + pA * s1 * invSqrtA * x);
+	}
+	
+	@Override
+	public void integrate(double x, double pA, double s, double[] xs, int xIndex, double[] ys, int yIndex) {
+		double v = x*pA + s;
+		double alpha = v * invSqrtA;
+		double beta = -pA * invA;
+		evaluate(sqrtA * x + addConstant, alpha, beta, null, xs, xIndex, ys, yIndex);
+		
+		xs[xIndex] += -alpha * c1 - beta * c2 + pA * c1 * invSqrtA * x;
+		ys[yIndex] = sign * (ys[yIndex] - alpha * s1 - beta * s2 + pA * s1 * invSqrtA * x);
+	}
+	
+	/**
+	 * The approximation's error was measured when the class was loaded rather than worked out, so
+	 * this is a very likely bound rather than a certain one.
+	 */
+	@Override
+	public double errorBound(double x, double pA, double s) {
+		double error = 2 * ERROR;
+		double perAxis = Math.abs(x*pA + s) * error * invSqrtA + Math.abs(pA) * (error * invA + ERROR * invSqrtA * Math.abs(x));
+		return perAxis * Math.sqrt(2);
+	}
+	
+}
@@ -0,0 +1,21 @@
+package badlib;
+
+/**
+ * Decides how a {@link Path} works out its position, by making the {@link IntegrationKernel} for each segment where
+ * angular acceleration isn't 0. Segments where it is 0 don't need one, since their integrals are simple.
+ * 
+ * {@link Series#TAYLOR} and {@link Series#FRESNEL} are the fast engines, and {@link SimpsonKernel#engine(double)} is a
+ * slow one that integrates numerically, to check the others against.
+ */
+public interface IntegrationEngine {
+	
+	/**
+	 * Creates the kernel for one segment.
+	 * 
+	 * @param a Angular acceleration (radians), must not be 0
+	 * @param b Initial angular velocity (radians)
+	 * @return The kernel
+	 */
+	IntegrationKernel kernel(double a, double b);
+	
+}
@@ -0,0 +1,72 @@
+package badlib;
+
+/**
+ * Integrates the motion of one segment of a path, where the angular acceleration and initial angular velocity don't change,
+ * for {@link PathMath#integrate(double, double, double, double, double, IntegrationKernel, Point)}.
+ * Kernels only change when the {@link Path} that owns them is reset, so until then one can be used by any number of threads at the same time.
+ * A reset rewrites them in place without locking, so a path mustn't be reset while another thread is using it or its kernels.
+ */
+public interface IntegrationKernel {
+	
+	/**
+	 * @param x Time
+	 * @return Integral of the cosine of the angle
+	 */
+	double cI1(double x);
+	
+	/**
+	 * @param x Time
+	 * @return Integral of {@link #cI1(double)}
+	 */
+	double cI2(double x);
+	
+	/**
+	 * @param x Time
+	 * @return Integral of the sine of the angle
+	 */
+	double sI1(double x);
+	
+	/**
+	 * @param x Time
+	 * @return Integral of {@link #sI1(double)}
+	 */
+	double sI2(double x);
+	
+	/**
+	 * Finds the position at time x, the same as {@link PathMath#integrate(double, double, double, double, double, Point)}.
+	 * 
+	 * @param x Time
+	 * @param pA Position acceleration
+	 * @param s Initial speed
+	 * @param dest Point to be written to
+	 */
+	void integrate(double x, double pA, double s, Point dest);
+	
+	/**
+	 * Same as {@link #integrate(double, double, double, Point)}, but writes x into xs at xIndex and y into ys at yIndex,
+	 * so positions can go straight into arrays without a {@link Point} in between. xs and ys can be the same array.
+	 * 
+	 * @param x Time
+	 * @param pA Position acceleration
+	 * @param s Initial speed
+	 * @param xs Array the x coordinate is written to
+	 * @param xIndex Where in xs it goes
+	 * @param ys Array the y coordinate is written to
+	 * @param yIndex Where in ys it goes
+	 */
+	void integrate(double x, double pA, double s, double[] xs, int xIndex, double[] ys, int yIndex);
+	
+	/**
+	 * @param x Time
+	 * @param pA Position acceleration
+	 * @param s Initial speed
+	 * @return Most {@link #integrate(double, double, double, Point)} could be off by, not counting rounding
+	 */
+	double errorBound(double x, double pA, double s);
+	
+	/**
+	 * @return Kernel for the opposite angular acceleration and initial angular velocity
+	 */
+	IntegrationKernel mirror();
+	
+}
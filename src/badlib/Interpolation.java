@@ -0,0 +1,20 @@
+package badlib;
+
+/**
+ * How {@link PrecomputedTrajectory} fills in values between its samples.
+ */
+public enum Interpolation {
+	
+	/**
+	 * Straight line between the two samples on either side.
+	 */
+	LINEAR,
+	
+	/**
+	 * Cubic Hermite spline between the two samples on either side, using the stored rate of change
+	 * at each sample (for example omega for the angle) as the slope. Quantities that have no stored
+	 * rate of change are interpolated linearly.
+	 */
+	HERMITE
+	
+}
@@ -0,0 +1,290 @@
+package badlib;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Works out the ranges of omega1, omega2 and middleTime that pass
+ * {@link Path#feasibility(double, double, double, double, double, double, double)}, for {@link Path}.
+ * Each of the checks it does is a quadratic (or simpler) inequality in any one of those parameters when the others are held
+ * still, so the ranges are found by solving those inequalities instead of trying values.
+ * 
+ * Ranges are lists of {min, max} pairs, in order, that don't overlap.
+ * Rounding can leave the ends of a range a few ulps outside the valid region, so they're pulled in until
+ * feasibility agrees with them.
+ */
+class Limits {
+	
+	/**
+	 * See {@link Path#omega1Limits(double, double, double, double, double, double)}.
+	 */
+	static Point omega1(double omega2, double middleTime, double startSpeed, double wantedSpeed, double endSpeed, double deltaTheta) {
+		double B = middleTime;
+		if (!(B > 0) || omega2 == 0) {
+			return null;
+		}
+		
+		double aMax = Math.abs(Path.ANGLE_MAX_ACCEL);
+		double limit = aMax + 0.001;
+		double K = linearTime(startSpeed, wantedSpeed, endSpeed);
+		double sign2 = Math.signum(omega2);
+		double abs2 = Math.abs(omega2);
+		
+		// omega1 = sign * u, with u >= 0. Only turning towards deltaTheta is allowed.
+		List<double[]> result = new ArrayList<double[]>();
+		for (int sign = 1; sign >= -1; sign -= 2) {
+			if (deltaTheta * sign < 0) {
+				continue;
+			}
+			
+			// C = (2*deltaTheta - sign*u^2/aMax - B*sign*u - B*omega2) / omega2 must be at least |omega2|/limit
+			List<double[]> range = solve(-sign2*sign/aMax, -sign2*B*sign, sign2*(2*deltaTheta - B*omega2) - omega2*omega2/limit);
+			
+			// |omega2 - sign*u| <= B*limit
+			range = intersect(range, sign > 0 ? omega2 - B*limit : -omega2 - B*limit, sign > 0 ? omega2 + B*limit : -omega2 + B*limit);
+			
+			// A + B + C - K >= 0, with A = u/aMax
+			if (!Double.isNaN(K)) {
+				range = intersect(range, solve(-sign2*sign/aMax, abs2/aMax - sign2*B*sign, abs2*(B - K) + sign2*(2*deltaTheta - B*omega2)));
+			}
+			
+			for (double[] interval : range) {
+				result.add(sign > 0 ? interval : new double[]{-interval[1], -interval[0]});
+			}
+		}
+		
+		return tighten(widest(result), 0, new double[]{0, omega2, middleTime, startSpeed, wantedSpeed, endSpeed, deltaTheta});
+	}
+	
+	/**
+	 * See {@link Path#omega2Limits(double, double, double, double, double, double)}.
+	 */
+	static Point omega2(double omega1, double middleTime, double startSpeed, double wantedSpeed, double endSpeed, double deltaTheta) {
+		double B = middleTime;
+		if (!(B > 0) || deltaTheta * omega1 < 0) {
+			return null;
+		}
+		
+		double aMax = Math.abs(Path.ANGLE_MAX_ACCEL);
+		double limit = aMax + 0.001;
+		double K = linearTime(startSpeed, wantedSpeed, endSpeed);
+		double A = Math.abs(omega1) / aMax;
+		double P = 2*deltaTheta - A*omega1 - B*omega1;
+		
+		// omega2 = sign * u, with u > 0, so C = sign*P/u - B
+		List<double[]> result = new ArrayList<double[]>();
+		for (int sign = -1; sign <= 1; sign += 2) {
+			// C >= u/limit
+			List<double[]> range = solve(-1/limit, -B, sign*P);
+			
+			// |sign*u - omega1| <= B*limit
+			range = intersect(range, sign > 0 ? omega1 - B*limit : -omega1 - B*limit, sign > 0 ? omega1 + B*limit : -omega1 + B*limit);
+			
+			// A + B + C - K >= 0
+			if (!Double.isNaN(K)) {
+				range = intersect(range, solve(0, A - K, sign*P));
+			}
+			
+			for (double[] interval : range) {
+				result.add(sign > 0 ? interval : new double[]{-interval[1], -interval[0]});
+			}
+		}
+		
+		return tighten(widest(result), 1, new double[]{omega1, 0, middleTime, startSpeed, wantedSpeed, endSpeed, deltaTheta});
+	}
+	
+	/**
+	 * See {@link Path#middleTimeLimits(double, double, double, double, double, double)}.
+	 */
+	static Point middleTime(double omega1, double omega2, double startSpeed, double wantedSpeed, double endSpeed, double deltaTheta) {
+		if (omega2 == 0 || deltaTheta * omega1 < 0) {
+			return null;
+		}
+		
+		double aMax = Math.abs(Path.ANGLE_MAX_ACCEL);
+		double limit = aMax + 0.001;
+		double K = linearTime(startSpeed, wantedSpeed, endSpeed);
+		double A = Math.abs(omega1) / aMax;
+		
+		// C = c0 - B*(omega1 + omega2)/omega2
+		double c0 = (2*deltaTheta - A*omega1) / omega2;
+		
+		// C >= |omega2|/limit
+		List<double[]> range = solve(0, -(omega1 + omega2)/omega2, c0 - Math.abs(omega2)/limit);
+		
+		// |omega2 - omega1| / B <= limit
+		range = intersect(range, Math.abs(omega2 - omega1) / limit, Double.POSITIVE_INFINITY);
+		
+		// A + B + C - K >= 0
+		if (!Double.isNaN(K)) {
+			range = intersect(range, solve(0, -omega1/omega2, A + c0 - K));
+		}
+		
+		return tighten(widest(range), 2, new double[]{omega1, omega2, 0, startSpeed, wantedSpeed, endSpeed, deltaTheta});
+	}
+	
+	/**
+	 * Pulls the ends of the range in until they pass feasibility.
+	 * 
+	 * @param which Index in parameters of the one the range is for
+	 * @param parameters All of the parameters to feasibility
+	 * @return The range, or null if it was only there because of rounding
+	 */
+	private static Point tighten(Point range, int which, double[] parameters) {
+		if (range == null) {
+			return null;
+		}
+		
+		double min = inward(range.x, range.y, which, parameters);
+		double max = inward(range.y, range.x, which, parameters);
+		if (Double.isNaN(min) || Double.isNaN(max) || min > max) {
+			return null;
+		}
+		range.x = min;
+		range.y = max;
+		return range;
+	}
+	
+	/**
+	 * Moves value towards the other end of the range by 1, 2, 4... ulps until it's valid.
+	 * 
+	 * @return The valid value, or NaN if it passed the other end first
+	 */
+	private static double inward(double value, double towards, int which, double[] parameters) {
+		// omega2 and middleTime are never valid at 0, and the methods above say 0 is left out of their ranges
+		if (Double.isInfinite(value) || (value == 0 && which != 0)) {
+			return value;
+		}
+		
+		double direction = Math.signum(towards - value);
+		double step = Math.ulp(Double.isInfinite(towards) ? value : Math.max(Math.abs(value), Math.abs(towards)));
+		double start = value;
+		for (int i = 0; i < 64; i++) {
+			parameters[which] = value;
+			if (Path.feasibility(parameters[0], parameters[1], parameters[2], parameters[3], parameters[4], parameters[5], parameters[6]).isValid()) {
+				return value;
+			}
+			value = start + direction*step;
+			step *= 2;
+			if (direction == 0 || (towards - value) * direction < 0) {
+				return Double.NaN;
+			}
+		}
+		return Double.NaN;
+	}
+	
+	/**
+	 * Time the linear periods need to get from startSpeed to wantedSpeed and then to endSpeed (Q + S in the constructor).
+	 * 
+	 * @return The time, or NaN if the constructor's R check can never fail for these speeds
+	 */
+	private static double linearTime(double startSpeed, double wantedSpeed, double endSpeed) {
+		double pA = Math.abs(Path.POSITION_MAX_ACCEL) * Math.signum(wantedSpeed - startSpeed);
+		double pD = Math.abs(Path.POSITION_MAX_ACCEL) * Math.signum(endSpeed - wantedSpeed);
+		if (pA == 0) {
+			pA = Math.abs(Path.POSITION_MAX_ACCEL);
+		} else if (pD == 0) {
+			pD = Math.abs(Path.POSITION_MAX_ACCEL);
+		}
+		
+		return (wantedSpeed - startSpeed)/pA + (endSpeed - wantedSpeed)/pD;
+	}
+	
+	/**
+	 * Solves a*u^2 + b*u + c >= 0 for u >= 0.
+	 */
+	private static List<double[]> solve(double a, double b, double c) {
+		List<double[]> range = new ArrayList<double[]>();
+		double inf = Double.POSITIVE_INFINITY;
+		
+		if (a == 0) {
+			if (b == 0) {
+				if (c >= 0) {
+					range.add(new double[]{0, inf});
+				}
+			} else if (b > 0) {
+				range.add(new double[]{Math.max(0, -c/b), inf});
+			} else if (-c/b >= 0) {
+				range.add(new double[]{0, -c/b});
+			}
+			return range;
+		}
+		
+		double discriminant = b*b - 4*a*c;
+		if (discriminant < 0) {
+			// Never crosses 0, so it's either always above or always below
+			if (a > 0) {
+				range.add(new double[]{0, inf});
+			}
+			return range;
+		}
+		
+		// Stable way to find both roots, without subtracting numbers that are almost the same
+		double q = -(b + Math.copySign(Math.sqrt(discriminant), b)) / 2;
+		double r1 = q / a;
+		double r2 = q == 0 ? 0 : c / q;
+		double low = Math.min(r1, r2);
+		double high = Math.max(r1, r2);
+		
+		if (a > 0) {
+			// Outside of the roots
+			if (low >= 0) {
+				range.add(new double[]{0, low});
+			}
+			range.add(new double[]{Math.max(0, high), inf});
+		} else if (high >= 0) {
+			// Between the roots
+			range.add(new double[]{Math.max(0, low), high});
+		}
+		return range;
+	}
+	
+	private static List<double[]> intersect(List<double[]> range, double min, double max) {
+		List<double[]> result = new ArrayList<double[]>();
+		for (double[] interval : range) {
+			double low = Math.max(interval[0], min);
+			double high = Math.min(interval[1], max);
+			if (low <= high) {
+				result.add(new double[]{low, high});
+			}
+		}
+		return result;
+	}
+	
+	private static List<double[]> intersect(List<double[]> range, List<double[]> other) {
+		List<double[]> result = new ArrayList<double[]>();
+		for (double[] interval : other) {
+			result.addAll(intersect(range, interval[0], interval[1]));
+		}
+		return result;
+	}
+	
+	/**
+	 * The checks only ever leave one range in practice, but if there's more than one, the widest is used.
+	 * Ranges that touch are joined first.
+	 */
+	private static Point widest(List<double[]> range) {
+		Point best = null;
+		Point current = null;
+		Collections.sort(range, new Comparator<double[]>() {
+			@Override
+			public int compare(double[] a, double[] b) {
+				return Double.compare(a[0], b[0]);
+			}
+		});
+		for (double[] interval : range) {
+			if (current != null && interval[0] <= current.y) {
+				current.y = Math.max(current.y, interval[1]);
+			} else {
+				current = new Point(interval[0], interval[1]);
+			}
+			if (best == null || current.y - current.x > best.y - best.x) {
+				best = current;
+			}
+		}
+		return best;
+	}
+	
+}
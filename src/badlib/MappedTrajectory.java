@@ -0,0 +1,95 @@
+package badlib;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Samples saved by {@link PathStore#write(TrajectoryBuffer, java.io.File)}, read straight out of the mapped file.
+ * Nothing is copied when the file is opened, and reading a sample doesn't create any objects.
+ * Sample i holds the same values as index i of the {@link TrajectoryBuffer} that was saved.
+ * Open one with {@link PathStore#readTrajectory(java.io.File)}.
+ */
+public class MappedTrajectory {
+	
+	private static final int T = 0, X = 1, Y = 2, ANGLE = 3, OMEGA = 4, SPEED = 5;
+	private static final int LEFT_X = 6, LEFT_Y = 7, RIGHT_X = 8, RIGHT_Y = 9;
+	private static final int LEFT_SPEED = 10, RIGHT_SPEED = 11, LEFT_DISTANCE = 12, RIGHT_DISTANCE = 13;
+	
+	private final ByteBuffer buffer;
+	private final int samples;
+	
+	MappedTrajectory(ByteBuffer buffer, int samples) {
+		this.buffer = buffer;
+		this.samples = samples;
+	}
+	
+	/**
+	 * @return Number of samples
+	 */
+	public int size() {
+		return samples;
+	}
+	
+	private double get(int sample, int column) {
+		if (sample < 0 || sample >= samples) {
+			throw new IndexOutOfBoundsException("Sample " + sample + " of " + samples);
+		}
+		return buffer.getDouble(PathStore.TRAJECTORY_HEADER + (sample * PathStore.TRAJECTORY_COLUMNS + column) * 8);
+	}
+	
+	public double t(int sample) {
+		return get(sample, T);
+	}
+	
+	public double x(int sample) {
+		return get(sample, X);
+	}
+	
+	public double y(int sample) {
+		return get(sample, Y);
+	}
+	
+	public double angle(int sample) {
+		return get(sample, ANGLE);
+	}
+	
+	public double omega(int sample) {
+		return get(sample, OMEGA);
+	}
+	
+	public double speed(int sample) {
+		return get(sample, SPEED);
+	}
+	
+	public double leftX(int sample) {
+		return get(sample, LEFT_X);
+	}
+	
+	public double leftY(int sample) {
+		return get(sample, LEFT_Y);
+	}
+	
+	public double rightX(int sample) {
+		return get(sample, RIGHT_X);
+	}
+	
+	public double rightY(int sample) {
+		return get(sample, RIGHT_Y);
+	}
+	
+	public double leftSpeed(int sample) {
+		return get(sample, LEFT_SPEED);
+	}
+	
+	public double rightSpeed(int sample) {
+		return get(sample, RIGHT_SPEED);
+	}
+	
+	public double leftDistance(int sample) {
+		return get(sample, LEFT_DISTANCE);
+	}
+	
+	public double rightDistance(int sample) {
+		return get(sample, RIGHT_DISTANCE);
+	}
+	
+}
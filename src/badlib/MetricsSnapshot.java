@@ -0,0 +1,95 @@
+package badlib;
+
+/**
+ * Every counter of {@link PathMetrics} at one moment. All of them are 0 unless {@link PathMetrics#ENABLED}.
+ */
+public class MetricsSnapshot {
+	
+	/**
+	 * Paths made by a constructor, and paths made again by {@link Path#reset(double, double, double, double, double, double, double)},
+	 * including ones that weren't possible
+	 */
+	public final long builds, resets;
+	
+	/**
+	 * Total time spent in both kinds of build (nanoseconds)
+	 */
+	public final long buildNanos;
+	
+	/**
+	 * Times parameters were checked, by a build or by {@link Path#feasibility(double, double, double, double, double, double, double)}
+	 * and {@link Path#validParameters(double, double, double, double, double, double, double)}
+	 */
+	public final long checks;
+	
+	/**
+	 * Positions found in a straight line, on an arc with constant omega, and with an {@link IntegrationKernel}
+	 */
+	public final long straight, arc, kernel;
+	
+	/**
+	 * Segments found with a binary search, and by walking forward from a hint
+	 */
+	public final long searches, walks;
+	
+	private final long[] rejections;
+	
+	MetricsSnapshot(long builds, long resets, long buildNanos, long checks, long[] rejections,
+			long straight, long arc, long kernel, long searches, long walks
+	) {
+		this.builds = builds;
+		this.resets = resets;
+		this.buildNanos = buildNanos;
+		this.checks = checks;
+		this.rejections = rejections;
+		this.straight = straight;
+		this.arc = arc;
+		this.kernel = kernel;
+		this.searches = searches;
+		this.walks = walks;
+	}
+	
+	/**
+	 * @param reason
+	 * @return Number of checks that failed for this reason, 0 for {@link Feasibility#VALID}
+	 */
+	public long rejections(Feasibility reason) {
+		return rejections[reason.ordinal()];
+	}
+	
+	/**
+	 * @return Number of checks that failed for any reason
+	 */
+	public long rejections() {
+		long total = 0;
+		for (long count : rejections) {
+			total += count;
+		}
+		return total;
+	}
+	
+	/**
+	 * @return Average time of a build (nanoseconds), or NaN if there weren't any
+	 */
+	public double nanosPerBuild() {
+		return (double) buildNanos / (builds + resets);
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("builds ").append(builds).append(", resets ").append(resets);
+		builder.append(", ").append(Math.round(nanosPerBuild())).append(" ns each\n");
+		builder.append("checks ").append(checks).append(", rejections ").append(rejections());
+		for (Feasibility reason : Feasibility.values()) {
+			if (rejections(reason) != 0) {
+				builder.append(", ").append(reason).append(' ').append(rejections(reason));
+			}
+		}
+		builder.append('\n');
+		builder.append("positions straight ").append(straight).append(", arc ").append(arc).append(", kernel ").append(kernel).append('\n');
+		builder.append("segment searches ").append(searches).append(", walks ").append(walks);
+		return builder.toString();
+	}
+	
+}
@@ -1,5 +1,11 @@
 package badlib;
 
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 /**
  * This class takes in specific inputs for how the robot should be moving over a period of time
  * and creates a path from that information. You can query this class's methods to find different pieces of 
@@ -16,7 +22,17 @@ public class Path {
 
 	private PathData pathData;
 	private double[] o;
-	private Point[] p;
+	private double[] px, py;
+	private IntegrationKernel[] k;
+	private IntegrationEngine engine;
+	private boolean mirrored;
+	
+	// Set for paths handed out by a PathCache or driven in a Route, which other callers may be using
+	private boolean shared;
+	
+	// Only made by the first reset, then used by every one after it
+	private Period[] periods;
+	private Point f, g;
 	
 	/**
 	 * Creates a path, if possible, with these given parameters.
@@ -35,14 +51,145 @@ public class Path {
 	 * @param speedStartCoast Delay time before speed starts changing when path starts
 	 * @param speedEndCoast Wait time at end of speed path
 	 * @param deltaTheta total change in theta from point A to B 
+	 * @throws IllegalArgumentException If the path isn't possible. The reason is printed first.
 	 */
 	public Path(double omega1, double omega2, double middleTime, double startSpeed, 
 			double wantedSpeed, double endSpeed, double omegaStartCoast, 
 			double omegaMiddleCoast, double omegaEndCoast, double speedStartCoast, 
 			double speedEndCoast, double deltaTheta
 	) {
-		if (deltaTheta * omega1 < 0) {
-			System.out.println("You're trying to accelerate in the wrong direction!");
+		this(omega1, omega2, middleTime, startSpeed, wantedSpeed, endSpeed, omegaStartCoast,
+				omegaMiddleCoast, omegaEndCoast, speedStartCoast, speedEndCoast, deltaTheta, PathMath.ENGINE);
+	}
+	
+	/**
+	 * Same as {@link #Path(double, double, double, double, double, double, double, double, double, double, double, double)},
+	 * but positions are found with the given engine instead of {@link PathMath#ENGINE}.
+	 * 
+	 * @param engine Makes the kernel for each segment where angular acceleration isn't 0
+	 * @throws IllegalArgumentException If the path isn't possible. The reason is printed first.
+	 */
+	public Path(double omega1, double omega2, double middleTime, double startSpeed, 
+			double wantedSpeed, double endSpeed, double omegaStartCoast, 
+			double omegaMiddleCoast, double omegaEndCoast, double speedStartCoast, 
+			double speedEndCoast, double deltaTheta, IntegrationEngine engine
+	) {
+		this(omega1, omega2, middleTime, startSpeed, wantedSpeed, endSpeed, omegaStartCoast,
+				omegaMiddleCoast, omegaEndCoast, speedStartCoast, speedEndCoast, deltaTheta, engine, null);
+	}
+	
+	/**
+	 * Same as {@link #Path(double, double, double, double, double, double, double, double, double, double, double, double, IntegrationEngine)},
+	 * for parameters that have already been checked, so they aren't checked (or counted by {@link PathMetrics}) again.
+	 * 
+	 * @param checked What {@link #feasibility(double, double, double, double, double, double, double, double, double, double, double, double)}
+	 * gave back for these parameters, or null to check them here
+	 */
+	Path(double omega1, double omega2, double middleTime, double startSpeed, 
+			double wantedSpeed, double endSpeed, double omegaStartCoast, 
+			double omegaMiddleCoast, double omegaEndCoast, double speedStartCoast, 
+			double speedEndCoast, double deltaTheta, IntegrationEngine engine, Feasibility checked
+	) {
+		if (engine == null) {
+			throw new IllegalArgumentException("Engine can't be null");
+		}
+		
+		this.engine = engine;
+		build(omega1, omega2, middleTime, startSpeed, wantedSpeed, endSpeed, omegaStartCoast,
+				omegaMiddleCoast, omegaEndCoast, speedStartCoast, speedEndCoast, deltaTheta, false, checked);
+	}
+	
+	/**
+	 * Creates a path, if possible, with these given parameters.
+	 * Will use {@link #ANGLE_MAX_ACCEL} and {@link #POSITION_MAX_ACCEL}, or smaller for 
+	 * linear and angular acceleration.
+	 * 
+	 * @param omega1 starting target angular velocity
+	 * @param omega2 ending target angular velocity
+	 * @param middleTime time to go from omega1 to omega2
+	 * @param startSpeed starting linear speed
+	 * @param wantedSpeed wanted linear speed at max
+	 * @param endSpeed wanted linear speed once finished
+	 * @param deltaTheta total change in theta from point A to B 
+	 */
+	public Path(double omega1, double omega2, double middleTime, double startSpeed, double wantedSpeed, double endSpeed, double deltaTheta) {
+		this(omega1, omega2, middleTime, startSpeed, wantedSpeed, endSpeed, 0, 0, 0, 0, 0, deltaTheta);
+	}
+	
+	/**
+	 * Same as {@link #Path(double, double, double, double, double, double, double)},
+	 * but positions are found with the given engine instead of {@link PathMath#ENGINE}.
+	 * 
+	 * @param engine Makes the kernel for each segment where angular acceleration isn't 0
+	 */
+	public Path(double omega1, double omega2, double middleTime, double startSpeed, double wantedSpeed, double endSpeed, 
+			double deltaTheta, IntegrationEngine engine) {
+		this(omega1, omega2, middleTime, startSpeed, wantedSpeed, endSpeed, 0, 0, 0, 0, 0, deltaTheta, engine);
+	}
+	
+	/**
+	 * Makes this path into the one {@link #Path(double, double, double, double, double, double, double, double, double, double, double, double, IntegrationEngine)}
+	 * would make with these parameters and this path's engine, reusing this path's arrays instead of making new ones.
+	 * After the first reset, resetting a path made with a {@link Series} engine doesn't create any objects,
+	 * so one path can be planned again every loop on the robot without any garbage.
+	 * Other engines are still asked for new kernels.
+	 * 
+	 * Cursors, followers and spliterators made from this path before the reset shouldn't be used after it.
+	 * If the path isn't possible, this path is left in an unknown state.
+	 * 
+	 * The path and its kernels are rewritten in place, without any locking, so no other thread may be using them while
+	 * this runs. A path that other threads can see has to be given to them again, in some thread safe way, after each reset.
+	 * Paths given out by a {@link PathCache} are shared with whoever else asked for the same parameters, so they can't be
+	 * reset. Use one made with a constructor instead, or {@link #mirror()} of the cached one, which is a new path.
+	 * Paths that are legs of a {@link Route} can't be reset either, since the route has worked out where each leg starts from them.
+	 * 
+	 * @throws IllegalArgumentException If the path isn't possible. The reason is printed first.
+	 * @throws IllegalStateException If this path came from a {@link PathCache} or is a leg of a {@link Route}
+	 */
+	public void reset(double omega1, double omega2, double middleTime, double startSpeed, 
+			double wantedSpeed, double endSpeed, double omegaStartCoast, 
+			double omegaMiddleCoast, double omegaEndCoast, double speedStartCoast, 
+			double speedEndCoast, double deltaTheta
+	) {
+		if (shared) {
+			throw new IllegalStateException("Paths from a PathCache or in a Route are shared and can't be reset");
+		}
+		build(omega1, omega2, middleTime, startSpeed, wantedSpeed, endSpeed, omegaStartCoast,
+				omegaMiddleCoast, omegaEndCoast, speedStartCoast, speedEndCoast, deltaTheta, true, null);
+	}
+	
+	/**
+	 * Same as {@link #reset(double, double, double, double, double, double, double, double, double, double, double, double)}
+	 * with no coasting.
+	 * 
+	 * @throws IllegalArgumentException If the path isn't possible. The reason is printed first.
+	 * @throws IllegalStateException If this path came from a {@link PathCache} or is a leg of a {@link Route}
+	 */
+	public void reset(double omega1, double omega2, double middleTime, double startSpeed, double wantedSpeed, double endSpeed, double deltaTheta) {
+		reset(omega1, omega2, middleTime, startSpeed, wantedSpeed, endSpeed, 0, 0, 0, 0, 0, deltaTheta);
+	}
+	
+	/**
+	 * Works out everything about a path. Used by the constructor, and by {@link #reset(double, double, double, double, double, double, double, double, double, double, double, double)}
+	 * with reuse true, in which case the arrays, periods and kernels this path already has are used again where possible.
+	 * 
+	 * @param checked The parameters' feasibility if it has already been found, or null to find it here
+	 * @throws IllegalArgumentException If the path isn't possible. The reason is printed first.
+	 */
+	private void build(double omega1, double omega2, double middleTime, double startSpeed, 
+			double wantedSpeed, double endSpeed, double omegaStartCoast, 
+			double omegaMiddleCoast, double omegaEndCoast, double speedStartCoast, 
+			double speedEndCoast, double deltaTheta, boolean reuse, Feasibility checked
+	) {
+		PathBuildEvent event = PathMetrics.ENABLED ? PathMetrics.beginBuild() : null;
+		
+		Feasibility feasibility = checked != null ? checked : feasibility(omega1, omega2, middleTime, startSpeed, wantedSpeed, endSpeed,
+				omegaStartCoast, omegaMiddleCoast, omegaEndCoast, speedStartCoast, speedEndCoast, deltaTheta);
+		if (!feasibility.isValid()) {
+			if (PathMetrics.ENABLED) {
+				PathMetrics.endBuild(event, reuse, feasibility, 0);
+			}
+			System.out.println(feasibility.message());
 			throw new IllegalArgumentException();
 		}
 		
@@ -56,18 +203,12 @@ public class Path {
 		double C = ( 2*deltaTheta - A*omega1 - B*(omega1+omega2) ) / omega2;
 		
 		double tD = -omega2/C;
-		if (Math.abs(tD) > Math.abs(tA)+0.001 || C < 0) {
-			System.out.println("Trying to decelerate too fast!");
-			throw new IllegalArgumentException();
-		}
 		double tM = (omega2-omega1)/B;
-		if (Math.abs(tM) > Math.abs(tA)+0.001) {
-			System.out.println("Trying to change directions too fast!");
-			throw new IllegalArgumentException();
-		}
 		
+		// Time until omega crosses 0 on its way from omega1 to omega2. If it doesn't cross 0 while going there,
+		// whether because it reaches omega2 first or because it's going away from 0, it all goes in the B-D period.
 		double D = -omega1 / tM;
-		if (D > B) {
+		if (D > B || D < 0) {
 			D = 0;
 			omegaMiddleCoast = 0;
 		}
@@ -85,43 +226,214 @@ public class Path {
 		double S = (endSpeed - wantedSpeed)/pD;
 		double R = T - Q - S - speedStartCoast - speedEndCoast;
 		
-		if (R < 0) {
-			System.out.println("Can't reach wantedSpeed in time!");
-			throw new IllegalArgumentException();
+		if (reuse) {
+			if (periods == null) {
+				periods = new Period[12];
+				for (int i = 0; i < periods.length; i++) {
+					periods[i] = new Period(0, 0, false);
+				}
+				f = new Point();
+				g = new Point();
+			}
+			set(periods[0], omegaStartCoast, 0, true);
+			set(periods[1], speedStartCoast, 0, false);
+			set(periods[2], A, tA, true);
+			set(periods[3], D, tM, true);
+			set(periods[4], omegaMiddleCoast, 0, true);
+			set(periods[5], B-D, tM, true);
+			set(periods[6], C, tD, true);
+			set(periods[7], Q, pA, false);
+			set(periods[8], R, 0, false);
+			set(periods[9], S, pD, false);
+			set(periods[10], speedEndCoast, 0, false);
+			set(periods[11], omegaEndCoast, 0, true);
+			pathData.reset(startSpeed, periods);
+		} else {
+			pathData = new PathData(
+					startSpeed,
+					new Period(omegaStartCoast, 0, true),
+					new Period(speedStartCoast, 0, false),
+					new Period(A, tA, true),
+					new Period(D, tM, true),
+					new Period(omegaMiddleCoast, 0, true),
+					new Period(B-D, tM, true),
+					new Period(C, tD, true),
+					new Period(Q, pA, false),
+					new Period(R, 0, false),
+					new Period(S, pD, false),
+					new Period(speedEndCoast, 0, false),
+					new Period(omegaEndCoast, 0, true)
+				);
 		}
 		
-		pathData = new PathData(
-				startSpeed,
-				new Period(omegaStartCoast, 0, true),
-				new Period(speedStartCoast, 0, false),
-				new Period(A, tA, true),
-				new Period(D, tM, true),
-				new Period(omegaMiddleCoast, 0, true),
-				new Period(B-D, tM, true),
-				new Period(C, tD, true),
-				new Period(Q, pA, false),
-				new Period(R, 0, false),
-				new Period(S, pD, false),
-				new Period(speedEndCoast, 0, false),
-				new Period(omegaEndCoast, 0, true)
-			);
+		int segments = pathData.segments;
+		if (!reuse || o.length < segments) {
+			int length = reuse ? periods.length : segments;
+			this.o = new double[length];
+			this.px = new double[length];
+			this.py = new double[length];
+			this.k = new IntegrationKernel[length];
+		}
+		this.mirrored = false;
 		
-		this.o = new double[pathData.t.length];
-		this.p = new Point[pathData.t.length];
-		this.p[0] = new Point();		
+		for (int i = 0; i < segments; i++) {
+			if (pathData.tA[i] != 0) {
+				double a = pathData.tA[i];
+				double b = pathData.omega(i, pathData.t[i]);
+				if (reuse && engine instanceof Series) {
+					this.k[i] = ((Series) engine).reuse(k[i], a, b, f, g);
+				} else {
+					this.k[i] = engine.kernel(a, b);
+				}
+			}
+		}
 		
-		for (int i = 1; i < this.o.length; i++) {
-			this.p[i] = new Point();
-			
+		this.o[0] = 0;
+		this.px[0] = 0;
+		this.py[0] = 0;
+		Point start = reuse ? f : new Point();
+		for (int i = 1; i < segments; i++) {
 			this.o[i] = PathMath.offset(pathData.tA[i], pathData.omega(i, pathData.t[i])) - pathData.angle(i, pathData.t[i]);
-			this.position(i-1, pathData.t[i], this.p[i]);
+			this.position(i-1, pathData.t[i], start);
+			this.px[i] = start.x;
+			this.py[i] = start.y;
+		}
+		
+		if (PathMetrics.ENABLED) {
+			PathMetrics.endBuild(event, reuse, feasibility, segments);
 		}
 	}
 	
+	private static void set(Period period, double duration, double rate, boolean angular) {
+		period.duration = duration;
+		period.rate = rate;
+		period.angular = angular;
+	}
+	
 	/**
-	 * Creates a path, if possible, with these given parameters.
-	 * Will use {@link #ANGLE_MAX_ACCEL} and {@link #POSITION_MAX_ACCEL}, or smaller for 
-	 * linear and angular acceleration.
+	 * Creates the mirror image of source across the x axis.
+	 */
+	private Path(Path source) {
+		this.pathData = source.pathData.mirror();
+		int segments = pathData.segments;
+		this.o = new double[segments];
+		this.px = new double[segments];
+		this.py = new double[segments];
+		this.k = new IntegrationKernel[segments];
+		this.engine = source.engine;
+		this.mirrored = !source.mirrored;
+		
+		for (int i = 0; i < segments; i++) {
+			this.o[i] = -source.o[i];
+			this.px[i] = source.px[i];
+			this.py[i] = -source.py[i];
+			if (pathData.tA[i] != 0) {
+				this.k[i] = source.k[i].mirror();
+			}
+		}
+	}
+	
+	/**
+	 * Puts together a path from parts that were worked out before, like ones read by {@link PathStore}. Nothing is copied.
+	 */
+	Path(PathData pathData, double[] o, double[] px, double[] py, IntegrationKernel[] k, IntegrationEngine engine, boolean mirrored) {
+		this.pathData = pathData;
+		this.o = o;
+		this.px = px;
+		this.py = py;
+		this.k = k;
+		this.engine = engine;
+		this.mirrored = mirrored;
+	}
+	
+	/**
+	 * Same as {@link #Path(double, double, double, double, double, double, double, double, double, double, double, double)},
+	 * but gives back null instead of printing and throwing if the parameters don't make a valid path.
+	 * Use {@link #feasibility(double, double, double, double, double, double, double, double, double, double, double, double)}
+	 * to find out why.
+	 * 
+	 * @return The path, or null if it isn't possible
+	 */
+	public static Path tryCreate(double omega1, double omega2, double middleTime, double startSpeed, 
+			double wantedSpeed, double endSpeed, double omegaStartCoast, 
+			double omegaMiddleCoast, double omegaEndCoast, double speedStartCoast, 
+			double speedEndCoast, double deltaTheta
+	) {
+		Feasibility feasibility = feasibility(omega1, omega2, middleTime, startSpeed, wantedSpeed, endSpeed, omegaStartCoast,
+				omegaMiddleCoast, omegaEndCoast, speedStartCoast, speedEndCoast, deltaTheta);
+		if (!feasibility.isValid()) {
+			return null;
+		}
+		
+		// Already checked, so the constructor doesn't check again
+		return new Path(omega1, omega2, middleTime, startSpeed, wantedSpeed, endSpeed, omegaStartCoast,
+				omegaMiddleCoast, omegaEndCoast, speedStartCoast, speedEndCoast, deltaTheta, PathMath.ENGINE, feasibility);
+	}
+	
+	/**
+	 * Same as {@link #Path(double, double, double, double, double, double, double)}, but gives back null instead of
+	 * printing and throwing if the parameters don't make a valid path.
+	 * Use {@link #feasibility(double, double, double, double, double, double, double)} to find out why.
+	 * 
+	 * @return The path, or null if it isn't possible
+	 */
+	public static Path tryCreate(double omega1, double omega2, double middleTime, double startSpeed, double wantedSpeed, double endSpeed, double deltaTheta) {
+		return tryCreate(omega1, omega2, middleTime, startSpeed, wantedSpeed, endSpeed, 0, 0, 0, 0, 0, deltaTheta);
+	}
+	
+	/**
+	 * Creates the mirror image of this path across the x axis, which is the same path that would be made by
+	 * negating omega1, omega2 and deltaTheta. Nothing has to be integrated again, so this is much faster than
+	 * constructing that path.
+	 * 
+	 * @return Mirrored path
+	 */
+	public Path mirror() {
+		return new Path(this);
+	}
+	
+	/**
+	 * Finds the range of omega1 that makes a valid path with the other parameters, worked out from the same checks as
+	 * {@link #feasibility(double, double, double, double, double, double, double)} without trying any values.
+	 * 
+	 * @param omega2 ending target angular velocity, not 0
+	 * @param middleTime time to go from omega1 to omega2, more than 0
+	 * @param startSpeed starting linear speed
+	 * @param wantedSpeed wanted linear speed at max
+	 * @param endSpeed wanted linear speed once finished
+	 * @param deltaTheta total change in theta from point A to B
+	 * @return The smallest valid omega1 as x and the biggest as y, or null if there isn't one
+	 */
+	public static Point omega1Limits(double omega2, double middleTime, double startSpeed, double wantedSpeed, double endSpeed, double deltaTheta) {
+		return Limits.omega1(omega2, middleTime, startSpeed, wantedSpeed, endSpeed, deltaTheta);
+	}
+	
+	/**
+	 * Same as {@link #omega1Limits(double, double, double, double, double, double)}, but for omega2.
+	 * omega2 can't be 0, so if the range reaches 0, 0 itself is left out.
+	 * 
+	 * @param omega1 starting target angular velocity
+	 * @return The smallest valid omega2 as x and the biggest as y, or null if there isn't one
+	 */
+	public static Point omega2Limits(double omega1, double middleTime, double startSpeed, double wantedSpeed, double endSpeed, double deltaTheta) {
+		return Limits.omega2(omega1, middleTime, startSpeed, wantedSpeed, endSpeed, deltaTheta);
+	}
+	
+	/**
+	 * Same as {@link #omega1Limits(double, double, double, double, double, double)}, but for middleTime.
+	 * middleTime has to be more than 0, so if the range reaches 0, 0 itself is left out.
+	 * 
+	 * @param omega1 starting target angular velocity
+	 * @param omega2 ending target angular velocity, not 0
+	 * @return The smallest valid middleTime as x and the biggest as y (which may be infinite), or null if there isn't one
+	 */
+	public static Point middleTimeLimits(double omega1, double omega2, double startSpeed, double wantedSpeed, double endSpeed, double deltaTheta) {
+		return Limits.middleTime(omega1, omega2, startSpeed, wantedSpeed, endSpeed, deltaTheta);
+	}
+	
+	/**
+	 * Calculates whether given parameters will create a valid path.
+	 * Prints the reason if they won't.
 	 * 
 	 * @param omega1 starting target angular velocity
 	 * @param omega2 ending target angular velocity
@@ -130,17 +442,38 @@ public class Path {
 	 * @param wantedSpeed wanted linear speed at max
 	 * @param endSpeed wanted linear speed once finished
 	 * @param deltaTheta total change in theta from point A to B 
+	 * @return True if the path will be valid
 	 */
-	public Path(double omega1, double omega2, double middleTime, double startSpeed, double wantedSpeed, double endSpeed, double deltaTheta) {
-		this(omega1, omega2, middleTime, startSpeed, wantedSpeed, endSpeed, 0, 0, 0, 0, 0, deltaTheta);
+	public static boolean validParameters(double omega1, double omega2, double middleTime, double startSpeed, double wantedSpeed, double endSpeed, double deltaTheta) {
+		Feasibility feasibility = feasibility(omega1, omega2, middleTime, startSpeed, wantedSpeed, endSpeed, deltaTheta);
+		if (!feasibility.isValid()) {
+			System.out.println(feasibility.message());
+			return false;
+		}
+		
+		return true;
 	}
 	
-	public Point omega1Limits(double omega2, double middleTime, double startSpeed, double wantedSpeed, double endSpeed, double deltaTheta) {
-		return null;
+	/**
+	 * Same as {@link #validParameters(double, double, double, double, double, double, double)}, but gives back the
+	 * reason the path isn't valid instead of printing it.
+	 * 
+	 * @param omega1 starting target angular velocity
+	 * @param omega2 ending target angular velocity
+	 * @param middleTime time to go from omega1 to omega2
+	 * @param startSpeed starting linear speed
+	 * @param wantedSpeed wanted linear speed at max
+	 * @param endSpeed wanted linear speed once finished
+	 * @param deltaTheta total change in theta from point A to B 
+	 * @return {@link Feasibility#VALID} if the path will be valid, otherwise the first problem found
+	 */
+	public static Feasibility feasibility(double omega1, double omega2, double middleTime, double startSpeed, double wantedSpeed, double endSpeed, double deltaTheta) {
+		return feasibility(omega1, omega2, middleTime, startSpeed, wantedSpeed, endSpeed, 0, 0, 0, 0, 0, deltaTheta);
 	}
 	
 	/**
-	 * Calculates whether given parameters will create a valid path.
+	 * Checks the parameters of {@link #Path(double, double, double, double, double, double, double, double, double, double, double, double)}
+	 * the same way the constructor does, without printing, throwing or allocating anything.
 	 * 
 	 * @param omega1 starting target angular velocity
 	 * @param omega2 ending target angular velocity
@@ -148,13 +481,34 @@ public class Path {
 	 * @param startSpeed starting linear speed
 	 * @param wantedSpeed wanted linear speed at max
 	 * @param endSpeed wanted linear speed once finished
+	 * @param omegaStartCoast Delay time before angle begins changing when path starts
+	 * @param omegaMiddleCoast Wait time when omega is 0 (if it is 0) around the middle of the path
+	 * @param omegaEndCoast Wait time when omega is 0 at the end of the path before the path finishes
+	 * @param speedStartCoast Delay time before speed starts changing when path starts
+	 * @param speedEndCoast Wait time at end of speed path
 	 * @param deltaTheta total change in theta from point A to B 
-	 * @return True if the path will be valid
+	 * @return {@link Feasibility#VALID} if the path will be valid, otherwise the first problem found
 	 */
-	public static boolean validParameters(double omega1, double omega2, double middleTime, double startSpeed, double wantedSpeed, double endSpeed, double deltaTheta) {
+	public static Feasibility feasibility(double omega1, double omega2, double middleTime, double startSpeed, 
+			double wantedSpeed, double endSpeed, double omegaStartCoast, 
+			double omegaMiddleCoast, double omegaEndCoast, double speedStartCoast, 
+			double speedEndCoast, double deltaTheta
+	) {
+		Feasibility feasibility = check(omega1, omega2, middleTime, startSpeed, wantedSpeed, endSpeed, omegaStartCoast,
+				omegaMiddleCoast, omegaEndCoast, speedStartCoast, speedEndCoast, deltaTheta);
+		if (PathMetrics.ENABLED) {
+			PathMetrics.checked(feasibility);
+		}
+		return feasibility;
+	}
+	
+	private static Feasibility check(double omega1, double omega2, double middleTime, double startSpeed, 
+			double wantedSpeed, double endSpeed, double omegaStartCoast, 
+			double omegaMiddleCoast, double omegaEndCoast, double speedStartCoast, 
+			double speedEndCoast, double deltaTheta
+	) {
 		if (deltaTheta * omega1 < 0) {
-			System.out.println("You're trying to accelerate in the wrong direction!");
-			return false;
+			return Feasibility.WRONG_DIRECTION;
 		}
 		
 		double tA = Math.abs(ANGLE_MAX_ACCEL) * Math.signum(omega1);
@@ -168,15 +522,19 @@ public class Path {
 		
 		double tD = -omega2/C;
 		if (Math.abs(tD) > Math.abs(tA)+0.001 || C < 0) {
-			System.out.println("Trying to decelerate too fast!");
-			return false;
+			return Feasibility.DECELERATE_TOO_FAST;
 		}
 		double tM = (omega2-omega1)/B;
 		if (Math.abs(tM) > Math.abs(tA)+0.001) {
-			System.out.println("Trying to change directions too fast!");
-			return false;
+			return Feasibility.DIRECTION_CHANGE_TOO_FAST;
 		}
-				
+		
+		double D = -omega1 / tM;
+		if (D > B || D < 0) {
+			omegaMiddleCoast = 0;
+		}
+		double T = A + B + C + omegaStartCoast + omegaMiddleCoast + omegaEndCoast;
+		
 		double pA = Math.abs(POSITION_MAX_ACCEL) * Math.signum(wantedSpeed - startSpeed);
 		double pD = Math.abs(POSITION_MAX_ACCEL) * Math.signum(endSpeed - wantedSpeed);
 		if (pA == 0) {
@@ -187,14 +545,36 @@ public class Path {
 		
 		double Q = (wantedSpeed - startSpeed)/pA;
 		double S = (endSpeed - wantedSpeed)/pD;
-		double R = A + B + C - Q - S;
+		double R = T - Q - S - speedStartCoast - speedEndCoast;
 		
 		if (R < 0) {
-			System.out.println("Can't reach wantedSpeed in time!");
-			return false;
+			return Feasibility.CANT_REACH_SPEED;
 		}
 		
-		return true;
+		return Feasibility.VALID;
+	}
+	
+	/**
+	 * Creates a {@link PathCursor} for this path, which remembers the time bracket of the last
+	 * query so that times which keep moving forward are found in O(1).
+	 * 
+	 * @return A new cursor, starting at the beginning of the path
+	 */
+	public PathCursor cursor() {
+		return new PathCursor(this);
+	}
+	
+	/**
+	 * Creates a {@link PathFollower} for this path, which works out wheel setpoints and errors for a control loop every tick.
+	 * 
+	 * @return A new follower, starting at the beginning of the path
+	 */
+	public PathFollower follower() {
+		return new PathFollower(this);
+	}
+	
+	int indexForTime(double t, int hint) {
+		return pathData.indexForTime(t, hint);
 	}
 	
 	/**
@@ -204,7 +584,11 @@ public class Path {
 	 * @return Angle in radians
 	 */
 	public double angle(double t) {
-		return pathData.angle(pathData.indexForTime(t), t);
+		return angle(pathData.indexForTime(t), t);
+	}
+	
+	double angle(int index, double t) {
+		return pathData.angle(index, t);
 	}
 	
 	/**
@@ -214,7 +598,11 @@ public class Path {
 	 * @return Omega (radians)
 	 */
 	public double omega(double t) {
-		return pathData.omega(pathData.indexForTime(t), t);
+		return omega(pathData.indexForTime(t), t);
+	}
+	
+	double omega(int index, double t) {
+		return pathData.omega(index, t);
 	}
 	
 	/**
@@ -224,7 +612,11 @@ public class Path {
 	 * @return Alpha (radians)
 	 */
 	public double angularAcceleration(double t) {
-		return pathData.tA[pathData.indexForTime(t)];
+		return angularAcceleration(pathData.indexForTime(t));
+	}
+	
+	double angularAcceleration(int index) {
+		return pathData.tA[index];
 	}
 	
 	/**
@@ -234,7 +626,11 @@ public class Path {
 	 * @return Speed
 	 */
 	public double speed(double t) {
-		return pathData.speed(pathData.indexForTime(t), t);
+		return speed(pathData.indexForTime(t), t);
+	}
+	
+	double speed(int index, double t) {
+		return pathData.speed(index, t);
 	}
 	
 	/**
@@ -244,7 +640,11 @@ public class Path {
 	 * @return Acceleration
 	 */
 	public double linearAcceleration(double t) {
-		return pathData.pA[pathData.indexForTime(t)];
+		return linearAcceleration(pathData.indexForTime(t));
+	}
+	
+	double linearAcceleration(int index) {
+		return pathData.pA[index];
 	}
 		
 	/**
@@ -258,7 +658,46 @@ public class Path {
 		position(index, t, dest);
 	}
 	
-	private void position(int index, double t, Point dest) {		
+	PathData data() {
+		return pathData;
+	}
+	
+	IntegrationKernel kernel(int index) {
+		return k[index];
+	}
+	
+	/**
+	 * @param index Index of a time bracket
+	 * @return Angle the bracket's integral is rotated back by, see {@link PathMath#rotatePoint(double, double, double, Point)}
+	 */
+	double rotation(int index) {
+		return o[index];
+	}
+	
+	double startX(int index) {
+		return px[index];
+	}
+	
+	double startY(int index) {
+		return py[index];
+	}
+	
+	/**
+	 * @return Whether this path was made by mirroring, so its kernels are mirrors of the ones its engine would make
+	 */
+	boolean mirrored() {
+		return mirrored;
+	}
+	
+	/**
+	 * Stops this path from being reset, since a {@link PathCache} is about to give it to more than one caller,
+	 * or a {@link Route} has worked out where its legs start from it.
+	 */
+	void share() {
+		this.shared = true;
+	}
+	
+	void position(int index, double t, Point dest) {		
 		if (t > pathData.T) {
 			t = pathData.T;
 		}
@@ -269,6 +708,7 @@ public class Path {
 				pathData.omega(index, pathData.t[index]), 
 				pathData.pA[index], 
 				pathData.speed(index, pathData.t[index]), 
+				k[index],
 				dest
 		);
 		PathMath.rotatePoint(
@@ -278,8 +718,98 @@ public class Path {
 				dest
 		);
 		
-		dest.x += p[index].x;
-		dest.y += p[index].y;
+		dest.x += px[index];
+		dest.y += py[index];
+	}
+	
+	/**
+	 * Same as {@link #position(int, double, Point)}, but writes x into xs at xIndex and y into ys at yIndex.
+	 */
+	void position(int index, double t, double[] xs, int xIndex, double[] ys, int yIndex) {
+		if (t > pathData.T) {
+			t = pathData.T;
+		}
+		
+		PathMath.integrate(
+				t - pathData.t[index], 
+				pathData.tA[index], 
+				pathData.omega(index, pathData.t[index]), 
+				pathData.pA[index], 
+				pathData.speed(index, pathData.t[index]), 
+				k[index],
+				xs, 
+				xIndex, 
+				ys, 
+				yIndex
+		);
+		
+		// The same as PathMath.rotatePoint, then moving by the segment's start
+		double x = xs[xIndex];
+		double y = ys[yIndex];
+		double cos = Math.cos(-this.o[index]);
+		double sin = Math.sin(-this.o[index]);
+		xs[xIndex] = x*cos - y*sin + px[index];
+		ys[yIndex] = x*sin + y*cos + py[index];
+	}
+	
+	/**
+	 * Same as {@link #position(double, Point)}, but writes x and y into out at offset and offset+1.
+	 * Nothing is allocated.
+	 * 
+	 * @param t
+	 * @param out Array to write into
+	 * @param offset Where x goes, y goes right after it
+	 */
+	public void position(double t, double[] out, int offset) {
+		position(pathData.indexForTime(t), t, out, offset, out, offset+1);
+	}
+	
+	/**
+	 * Finds the positions at many times at once, the same as calling {@link #position(double, Point)} for each.
+	 * Times that are next to each other in the array and in the same segment are done together, so the segment's
+	 * constants and the cosine and sine of its rotation are only found once for all of them. That works best
+	 * when the times are in order, like the times along a trajectory.
+	 * 
+	 * @param times Times to find the positions at
+	 * @param xs Where the x coordinates are written
+	 * @param ys Where the y coordinates are written
+	 * @param n Number of times, starting at the beginning of each array
+	 * @throws IllegalArgumentException If an array is shorter than n
+	 */
+	public void positions(double[] times, double[] xs, double[] ys, int n) {
+		if (times.length < n || xs.length < n || ys.length < n) {
+			throw new IllegalArgumentException("Arrays must hold at least n elements");
+		}
+		
+		int index = 0;
+		int from = 0;
+		while (from < n) {
+			index = pathData.indexForTime(times[from], index);
+			double start = pathData.t[index];
+			double next = index + 1 < pathData.segments ? pathData.t[index + 1] : Double.POSITIVE_INFINITY;
+			
+			int to = from + 1;
+			while (to < n && times[to] >= start && times[to] < next) {
+				to++;
+			}
+			
+			PathMath.integrate(
+					times, 
+					start, 
+					pathData.T, 
+					from, 
+					to, 
+					pathData.tA[index], 
+					pathData.omega(index, start), 
+					pathData.pA[index], 
+					pathData.speed(index, start), 
+					k[index], 
+					xs, 
+					ys
+			);
+			PathMath.rotatePoints(xs, ys, from, to, this.o[index], px[index], py[index]);
+			from = to;
+		}
 	}
 	
 	/**
@@ -290,8 +820,12 @@ public class Path {
 	 * @param right Right wheel's (x, y) position as a {@link Point}
 	 */
 	public void wheelPositions(double t, Point left, Point right) {
-		double angle = this.angle(t) - Math.PI/2;
-		position(t, left);
+		wheelPositions(pathData.indexForTime(t), t, left, right);
+	}
+	
+	void wheelPositions(int index, double t, Point left, Point right) {
+		double angle = this.angle(index, t) - Math.PI/2;
+		position(index, t, left);
 		
 		right.x = left.x + ROBOT_RADIUS * Math.cos(angle);
 		right.y = left.y + ROBOT_RADIUS * Math.sin(angle);
@@ -301,6 +835,27 @@ public class Path {
 		left.y += ROBOT_RADIUS * Math.sin(angle);
 	}
 	
+	/**
+	 * Same as {@link #wheelPositions(double, Point, Point)}, but writes the left wheel's x and y, then the right wheel's x and y,
+	 * into out starting at offset. Nothing is allocated.
+	 * 
+	 * @param t
+	 * @param out Array to write into
+	 * @param offset Where the left wheel's x goes
+	 */
+	public void wheelPositions(double t, double[] out, int offset) {
+		int index = pathData.indexForTime(t);
+		double angle = this.angle(index, t) - Math.PI/2;
+		position(index, t, out, offset, out, offset+1);
+		
+		out[offset+2] = out[offset] + ROBOT_RADIUS * Math.cos(angle);
+		out[offset+3] = out[offset+1] + ROBOT_RADIUS * Math.sin(angle);
+		
+		angle += Math.PI;
+		out[offset] += ROBOT_RADIUS * Math.cos(angle);
+		out[offset+1] += ROBOT_RADIUS * Math.sin(angle);
+	}
+	
 	/**
 	 * Finds the speed of the wheel in units at the given time.
 	 * 
@@ -308,15 +863,10 @@ public class Path {
 	 * @param dest A {@link Point} where x is the left wheel and y is the right wheel -- (left, right)
 	 */
 	public void wheelSpeeds(double t, Point dest) {
-		double speed = speed(t);
-		double omega = omega(t);
-		double tangential = omega * ROBOT_RADIUS;
-		
-		dest.x = speed - tangential;
-		dest.y = speed + tangential;
+		wheelSpeeds(pathData.indexForTime(t), t, dest);
 	}
 	
-	private void wheelSpeeds(int index, double t, Point dest) {
+	void wheelSpeeds(int index, double t, Point dest) {
 		double speed = pathData.speed(index, t);
 		double omega = pathData.omega(index, t);
 		double tangential = omega * ROBOT_RADIUS;
@@ -325,6 +875,22 @@ public class Path {
 		dest.y = speed + tangential;
 	}
 	
+	/**
+	 * Same as {@link #wheelSpeeds(double, Point)}, but writes the left speed into out at offset and the right speed at offset+1.
+	 * 
+	 * @param t
+	 * @param out Array to write into
+	 * @param offset Where the left speed goes
+	 */
+	public void wheelSpeeds(double t, double[] out, int offset) {
+		int index = pathData.indexForTime(t);
+		double speed = pathData.speed(index, t);
+		double tangential = pathData.omega(index, t) * ROBOT_RADIUS;
+		
+		out[offset] = speed - tangential;
+		out[offset+1] = speed + tangential;
+	}
+	
 	/**
 	 * Finds the distance each wheel has traveled in units at the given time.
 	 * 
@@ -332,30 +898,121 @@ public class Path {
 	 * @param dest A {@link Point} where x is the left wheel and y is the right wheel -- (left, right)
 	 */
 	public void wheelDistances(double t, Point dest) {
-		if (t > pathData.T) {
-			t = pathData.T;
-		}
-
-		Point wheelSpeeds = new Point();
-		Point nextWheelSpeeds = new Point();
-		dest.x = 0;
-		dest.y = 0;
+		wheelDistances(pathData.indexForTime(t), t, dest);
+	}
+	
+	void wheelDistances(int index, double t, Point dest) {
+		double distance = pathData.distance(index, t);
+		double arc = pathData.angle(index, t) * ROBOT_RADIUS;
+		
+		dest.x = distance - arc;
+		dest.y = distance + arc;
+	}
+	
+	/**
+	 * Same as {@link #wheelDistances(double, Point)}, but writes the left distance into out at offset and the right distance at offset+1.
+	 * 
+	 * @param t
+	 * @param out Array to write into
+	 * @param offset Where the left distance goes
+	 */
+	public void wheelDistances(double t, double[] out, int offset) {
 		int index = pathData.indexForTime(t);
+		double distance = pathData.distance(index, t);
+		double arc = pathData.angle(index, t) * ROBOT_RADIUS;
+		
+		out[offset] = distance - arc;
+		out[offset+1] = distance + arc;
+	}
+	
+	/**
+	 * Samples the path n times, dt apart, starting at t0, and writes everything about each sample into out.
+	 * This is the same as calling {@link #position(double, Point)}, {@link #wheelPositions(double, Point, Point)},
+	 * {@link #wheelDistances(double, Point)}, {@link #wheelSpeeds(double, Point)}, {@link #angle(double)},
+	 * {@link #omega(double)} and {@link #speed(double)} for every sample, except the segment is found by walking forward
+	 * from the previous sample, and the position, angle, omega and speed are only found once per sample and shared.
+	 * Once out is big enough, nothing is allocated.
+	 * 
+	 * @param t0 Time of the first sample
+	 * @param dt Time between samples
+	 * @param n Number of samples
+	 * @param out Where to put the samples, grown if it's too small
+	 */
+	public void sample(double t0, double dt, int n, TrajectoryBuffer out) {
+		out.ensureCapacity(n);
+		out.size = n;
 		
-		for (int i = 0; i < index; i++) {
-			wheelSpeeds(i+1, pathData.t[i+1], nextWheelSpeeds);
+		int index = pathData.indexForTime(t0);
+		for (int i = 0; i < n; i++) {
+			double t = t0 + i*dt;
+			index = pathData.indexForTime(t, index);
 			
-			dest.x += area(nextWheelSpeeds.x, wheelSpeeds.x, pathData.t[i], pathData.t[i+1]);
-			dest.y += area(nextWheelSpeeds.y, wheelSpeeds.y, pathData.t[i], pathData.t[i+1]);
+			double angle = pathData.angle(index, t);
+			double omega = pathData.omega(index, t);
+			double speed = pathData.speed(index, t);
+			double distance = pathData.distance(index, t);
+			// Straight into the buffer, so nothing is allocated
+			position(index, t, out.x, i, out.y, i);
+			double x = out.x[i];
+			double y = out.y[i];
 			
-			wheelSpeeds.x = nextWheelSpeeds.x;
-			wheelSpeeds.y = nextWheelSpeeds.y;
+			// The right wheel is ROBOT_RADIUS away at angle - PI/2, the left wheel at angle + PI/2
+			double dx = ROBOT_RADIUS * Math.sin(angle);
+			double dy = -ROBOT_RADIUS * Math.cos(angle);
+			double tangential = omega * ROBOT_RADIUS;
+			double arc = angle * ROBOT_RADIUS;
+			
+			out.t[i] = t;
+			out.angle[i] = angle;
+			out.omega[i] = omega;
+			out.speed[i] = speed;
+			out.leftX[i] = x - dx;
+			out.leftY[i] = y - dy;
+			out.rightX[i] = x + dx;
+			out.rightY[i] = y + dy;
+			out.leftSpeed[i] = speed - tangential;
+			out.rightSpeed[i] = speed + tangential;
+			out.leftDistance[i] = distance - arc;
+			out.rightDistance[i] = distance + arc;
 		}
-		
-		wheelSpeeds(index, t, nextWheelSpeeds);
-		
-		dest.x += area(nextWheelSpeeds.x, wheelSpeeds.x, pathData.t[index], t);
-		dest.y += area(nextWheelSpeeds.y, wheelSpeeds.y, pathData.t[index], t);
+	}
+	
+	/**
+	 * Makes the same samples as {@link #sample(double, double, int, TrajectoryBuffer)}, one at a time as they're asked for.
+	 * See {@link TrajectorySpliterator} for why this is cheaper per sample.
+	 * 
+	 * @param t0 Time of the first sample
+	 * @param dt Time between samples
+	 * @param n Number of samples
+	 * @return Spliterator over the samples, which can be split for parallel streams
+	 */
+	public Spliterator<TrajectorySample> spliterator(double t0, double dt, int n) {
+		return new TrajectorySpliterator(this, t0, dt, n);
+	}
+	
+	/**
+	 * Same as {@link #spliterator(double, double, int)}, as an iterator.
+	 * 
+	 * @param t0 Time of the first sample
+	 * @param dt Time between samples
+	 * @param n Number of samples
+	 * @return Iterator over the samples
+	 */
+	public Iterator<TrajectorySample> iterator(double t0, double dt, int n) {
+		return Spliterators.iterator(spliterator(t0, dt, n));
+	}
+	
+	/**
+	 * Same as {@link #spliterator(double, double, int)}, as a stream.
+	 * 
+	 * @param t0 Time of the first sample
+	 * @param dt Time between samples
+	 * @param n Number of samples
+	 * @param parallel Whether the stream is parallel
+	 * @return Stream of the samples, in order
+	 */
+	public Stream<TrajectorySample> stream(double t0, double dt, int n, boolean parallel) {
+		return StreamSupport.stream(spliterator(t0, dt, n), parallel);
 	}
 	
 	/**
@@ -366,15 +1023,52 @@ public class Path {
 		return pathData.T;
 	}
 	
-	private static double area(double h1, double h2, double t1, double t2) {
-		return (h1+h2)*(t2-t1)/2;
+	/**
+	 * @return Engine this path's kernels came from
+	 */
+	public IntegrationEngine engine() {
+		return engine;
 	}
 	
+	/**
+	 * Finds how far off the end of the path could be because of the approximations in its {@link IntegrationKernel}s.
+	 * Each segment starts where the last one ended, so the bound is the sum of every segment's bound at its end.
+	 * Rounding isn't counted.
+	 * 
+	 * @return Most the end position could be off by, in inches
+	 */
+	public double errorBound() {
+		double error = 0;
+		int segments = pathData.segments;
+		for (int i = 0; i < segments; i++) {
+			// Kernels of segments without angular acceleration may be left over from before a reset
+			if (pathData.tA[i] != 0) {
+				double end = i + 1 < segments ? pathData.t[i+1] : pathData.T;
+				error += k[i].errorBound(end - pathData.t[i], pathData.pA[i], pathData.speed(i, pathData.t[i]));
+			}
+		}
+		return error;
+	}
+	
+	/**
+	 * Finds a path from the origin, facing along the x axis, that ends at dest facing deltaAngle.
+	 * The path speeds up or slows down from startingSpeed to endingSpeed, and stays there.
+	 * See {@link PathSolver} for how omega1, omega2 and middleTime are found.
+	 * 
+	 * @param startingSpeed starting linear speed
+	 * @param endingSpeed linear speed at the end
+	 * @param deltaAngle total change in theta from the origin to dest
+	 * @param dest Point the path should end at
+	 * @return The path
+	 * @throws IllegalArgumentException If no path could be found that ends within {@link PathSolver#TOLERANCE} of dest
+	 */
 	public static Path pathToPoint(double startingSpeed, double endingSpeed, double deltaAngle, Point dest) {
-		double omega1 = 0;
-		double omega2 = 0;
-		double middleTime = 0;
-		Path path = new Path(omega1, omega2, middleTime, startingSpeed, endingSpeed, endingSpeed, deltaAngle);
+		PathSolution solution = PathSolver.solve(startingSpeed, endingSpeed, deltaAngle, dest, null);
+		if (!solution.converged) {
+			throw new IllegalArgumentException("Can't find a path to that point");
+		}
+		
+		return solution.path;
 	}
 	
 }
@@ -0,0 +1,36 @@
+package badlib;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight Recorder event for one {@link Path} being made or reset, recorded while {@link PathMetrics#ENABLED}.
+ * A build usually takes a few microseconds, so by default only ones slower than 20 us are recorded, to catch the
+ * slow ones without flooding the recording. The threshold can be changed in the recording's settings.
+ */
+@Name("badlib.PathBuild")
+@Label("Path Build")
+@Category("badlib")
+@Description("A path being made by a constructor or by reset")
+@Threshold("20 us")
+@StackTrace(false)
+public class PathBuildEvent extends Event {
+	
+	@Label("Reset")
+	boolean reset;
+	
+	@Label("Feasibility")
+	String feasibility;
+	
+	@Label("Segments")
+	int segments;
+	
+	// For PathMetrics, which times builds itself
+	transient long start;
+	
+}
@@ -0,0 +1,219 @@
+package badlib;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers {@link Path}s that have already been made, so asking for the same parameters again doesn't
+ * construct a new one. Paths are only stored for turns in the positive direction; a path for the same
+ * parameters with omega1, omega2 and deltaTheta negated is made with {@link Path#mirror()} from the stored one.
+ * Once the cache holds its maximum number of paths, the least recently used one is thrown away to make room.
+ * 
+ * Any number of threads can use the same cache. Paths are built outside of the cache's lock, so two threads asking
+ * for the same new path at the same time may both build it.
+ * 
+ * Every caller asking for the same parameters gets the same stored path, so stored paths can't be changed:
+ * {@link Path#reset(double, double, double, double, double, double, double)} throws an {@link IllegalStateException}
+ * on them. Mirrored paths are made new for each caller, so they can be reset. A caller that wants to reset a path
+ * should make its own with a {@link Path} constructor.
+ * 
+ * {@link Path#ANGLE_MAX_ACCEL}, {@link Path#POSITION_MAX_ACCEL}, {@link PathMath#ENGINE} and {@link PathMath#TOLERANCE}
+ * are part of what a path is stored under, so changing them doesn't give back paths made with the old values.
+ */
+public class PathCache {
+	
+	private final int maxSize;
+	private final LinkedHashMap<Key, Path> paths;
+	
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder mirrorHits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	
+	/**
+	 * @param maxSize Most paths to keep at once
+	 */
+	public PathCache(int maxSize) {
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("maxSize must be at least 1");
+		}
+		
+		this.maxSize = maxSize;
+		this.paths = new LinkedHashMap<Key, Path>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Path> eldest) {
+				if (size() > PathCache.this.maxSize) {
+					evictions.increment();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+	
+	/**
+	 * Same as {@link Path#Path(double, double, double, double, double, double, double)}, but gives back
+	 * a stored path if there is one.
+	 * 
+	 * @param omega1 starting target angular velocity
+	 * @param omega2 ending target angular velocity
+	 * @param middleTime time to go from omega1 to omega2
+	 * @param startSpeed starting linear speed
+	 * @param wantedSpeed wanted linear speed at max
+	 * @param endSpeed wanted linear speed once finished
+	 * @param deltaTheta total change in theta from point A to B
+	 * @return The path, which is shared and can't be reset unless it had to be mirrored
+	 * @throws IllegalArgumentException If the path isn't possible
+	 */
+	public Path get(double omega1, double omega2, double middleTime, double startSpeed, double wantedSpeed, double endSpeed, double deltaTheta) {
+		return get(omega1, omega2, middleTime, startSpeed, wantedSpeed, endSpeed, 0, 0, 0, 0, 0, deltaTheta);
+	}
+	
+	/**
+	 * Same as {@link Path#Path(double, double, double, double, double, double, double, double, double, double, double, double)},
+	 * but gives back a stored path if there is one.
+	 * 
+	 * @param omega1 starting target angular velocity
+	 * @param omega2 ending target angular velocity
+	 * @param middleTime time to go from omega1 to omega2
+	 * @param startSpeed starting linear speed
+	 * @param wantedSpeed wanted linear speed at max
+	 * @param endSpeed wanted linear speed once finished
+	 * @param omegaStartCoast Delay time before angle begins changing when path starts
+	 * @param omegaMiddleCoast Wait time when omega is 0 (if it is 0) around the middle of the path
+	 * @param omegaEndCoast Wait time when omega is 0 at the end of the path before the path finishes
+	 * @param speedStartCoast Delay time before speed starts changing when path starts
+	 * @param speedEndCoast Wait time at end of speed path
+	 * @param deltaTheta total change in theta from point A to B
+	 * @return The path, which is shared and can't be reset unless it had to be mirrored
+	 * @throws IllegalArgumentException If the path isn't possible
+	 */
+	public Path get(double omega1, double omega2, double middleTime, double startSpeed,
+			double wantedSpeed, double endSpeed, double omegaStartCoast,
+			double omegaMiddleCoast, double omegaEndCoast, double speedStartCoast,
+			double speedEndCoast, double deltaTheta
+	) {
+		boolean mirrored = deltaTheta < 0 || (deltaTheta == 0 && (omega1 < 0 || (omega1 == 0 && omega2 < 0)));
+		if (mirrored) {
+			omega1 = -omega1;
+			omega2 = -omega2;
+			deltaTheta = -deltaTheta;
+		}
+		
+		IntegrationEngine engine = PathMath.ENGINE;
+		Key key = new Key(engine, omega1, omega2, middleTime, startSpeed, wantedSpeed, endSpeed, omegaStartCoast,
+				omegaMiddleCoast, omegaEndCoast, speedStartCoast, speedEndCoast, deltaTheta,
+				Math.abs(Path.ANGLE_MAX_ACCEL), Math.abs(Path.POSITION_MAX_ACCEL), PathMath.TOLERANCE);
+		
+		Path path;
+		synchronized (paths) {
+			path = paths.get(key);
+		}
+		
+		if (path != null) {
+			if (mirrored) {
+				mirrorHits.increment();
+			} else {
+				hits.increment();
+			}
+		} else {
+			misses.increment();
+			path = new Path(omega1, omega2, middleTime, startSpeed, wantedSpeed, endSpeed, omegaStartCoast,
+					omegaMiddleCoast, omegaEndCoast, speedStartCoast, speedEndCoast, deltaTheta, engine);
+			path.share();
+			synchronized (paths) {
+				paths.put(key, path);
+			}
+		}
+		
+		return mirrored ? path.mirror() : path;
+	}
+	
+	/**
+	 * @return Number of requests answered with a stored path as is
+	 */
+	public long hits() {
+		return hits.sum();
+	}
+	
+	/**
+	 * @return Number of requests answered by mirroring a stored path
+	 */
+	public long mirrorHits() {
+		return mirrorHits.sum();
+	}
+	
+	/**
+	 * @return Number of requests that had to construct a new path
+	 */
+	public long misses() {
+		return misses.sum();
+	}
+	
+	/**
+	 * @return Number of paths thrown away to make room for new ones
+	 */
+	public long evictions() {
+		return evictions.sum();
+	}
+	
+	/**
+	 * @return Number of paths stored right now
+	 */
+	public int size() {
+		synchronized (paths) {
+			return paths.size();
+		}
+	}
+	
+	/**
+	 * @return Most paths that will be stored at once
+	 */
+	public int maxSize() {
+		return maxSize;
+	}
+	
+	/**
+	 * Throws away every stored path. The hit, miss and eviction counts are kept.
+	 */
+	public void clear() {
+		synchronized (paths) {
+			paths.clear();
+		}
+	}
+	
+	/**
+	 * The engine and parameters a path was made with. -0 is treated the same as 0.
+	 */
+	private static class Key {
+		
+		private final IntegrationEngine engine;
+		private final double[] values;
+		private final int hash;
+		
+		Key(IntegrationEngine engine, double... values) {
+			for (int i = 0; i < values.length; i++) {
+				values[i] += 0.0;
+			}
+			this.engine = engine;
+			this.values = values;
+			this.hash = 31 * engine.hashCode() + Arrays.hashCode(values);
+		}
+		
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+		
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Key && engine.equals(((Key) o).engine) && Arrays.equals(values, ((Key) o).values);
+		}
+		
+	}
+	
+}
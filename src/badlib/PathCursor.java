@@ -0,0 +1,137 @@
+package badlib;
+
+/**
+ * Queries a {@link Path} at times that mostly move forward, like when a path is being followed
+ * or sampled every so often. The cursor remembers which time bracket the last query was in and
+ * starts looking from there, so each query only costs O(1) on average instead of a search through
+ * the whole path. Going back in time still works, it just costs a binary search.
+ * 
+ * A cursor is not thread safe, but any number of cursors can be made for the same {@link Path}.
+ */
+public class PathCursor {
+
+	private final Path path;
+	private int index;
+	
+	PathCursor(Path path) {
+		this.path = path;
+		this.index = 0;
+	}
+	
+	/**
+	 * Finds the index of the time bracket for t, starting from the last one found.
+	 * 
+	 * @param t
+	 * @return Index of this t's time bracket
+	 */
+	public int index(double t) {
+		index = path.indexForTime(t, index);
+		return index;
+	}
+	
+	/**
+	 * Moves the cursor back to the beginning of the path.
+	 */
+	public void reset() {
+		index = 0;
+	}
+	
+	/**
+	 * @return The path this cursor queries
+	 */
+	public Path path() {
+		return path;
+	}
+	
+	/**
+	 * Same as {@link Path#angle(double)}.
+	 * 
+	 * @param t
+	 * @return Angle in radians
+	 */
+	public double angle(double t) {
+		return path.angle(index(t), t);
+	}
+	
+	/**
+	 * Same as {@link Path#omega(double)}.
+	 * 
+	 * @param t
+	 * @return Omega (radians)
+	 */
+	public double omega(double t) {
+		return path.omega(index(t), t);
+	}
+	
+	/**
+	 * Same as {@link Path#angularAcceleration(double)}.
+	 * 
+	 * @param t
+	 * @return Alpha (radians)
+	 */
+	public double angularAcceleration(double t) {
+		return path.angularAcceleration(index(t));
+	}
+	
+	/**
+	 * Same as {@link Path#speed(double)}.
+	 * 
+	 * @param t
+	 * @return Speed
+	 */
+	public double speed(double t) {
+		return path.speed(index(t), t);
+	}
+	
+	/**
+	 * Same as {@link Path#linearAcceleration(double)}.
+	 * 
+	 * @param t
+	 * @return Acceleration
+	 */
+	public double linearAcceleration(double t) {
+		return path.linearAcceleration(index(t));
+	}
+	
+	/**
+	 * Same as {@link Path#position(double, Point)}.
+	 * 
+	 * @param t
+	 * @param dest The {@link Point} to put the coordinates into.
+	 */
+	public void position(double t, Point dest) {
+		path.position(index(t), t, dest);
+	}
+	
+	/**
+	 * Same as {@link Path#wheelPositions(double, Point, Point)}.
+	 * 
+	 * @param t
+	 * @param left Left wheel's (x, y) position as a {@link Point}
+	 * @param right Right wheel's (x, y) position as a {@link Point}
+	 */
+	public void wheelPositions(double t, Point left, Point right) {
+		path.wheelPositions(index(t), t, left, right);
+	}
+	
+	/**
+	 * Same as {@link Path#wheelSpeeds(double, Point)}.
+	 * 
+	 * @param t
+	 * @param dest A {@link Point} where x is the left wheel and y is the right wheel -- (left, right)
+	 */
+	public void wheelSpeeds(double t, Point dest) {
+		path.wheelSpeeds(index(t), t, dest);
+	}
+	
+	/**
+	 * Same as {@link Path#wheelDistances(double, Point)}.
+	 * 
+	 * @param t
+	 * @param dest A {@link Point} where x is the left wheel and y is the right wheel -- (left, right)
+	 */
+	public void wheelDistances(double t, Point dest) {
+		path.wheelDistances(index(t), t, dest);
+	}
+	
+}
@@ -1,8 +1,6 @@
 package badlib;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 
 /**
  * Takes periods of acceleration for angle and position and puts
@@ -20,114 +18,273 @@ public class PathData {
 	public double[] tA, pA, t;
 	public double T;
 
-	public double[] speed, omega, angle;
+	public double[] speed, omega, angle, distance;
+	
+	/**
+	 * Number of time slots. Only the first this many elements of each array are used, and the arrays are only ever
+	 * longer than that after {@link #reset(double, Period[])}.
+	 */
+	public int segments;
 	
 	/**
 	 * The periods of the time during which angle and position are changing.
 	 * Linear periods must be ordered by time relative to the other linear periods.
 	 * Angular periods must be ordered by time relative to the other angular periods.
 	 * If the above condition is met, the periods may be mixed together in any way.
+	 * The periods aren't changed.
 	 * 
 	 * @param periods Acceleration periods
 	 */
 	public PathData(double initialSpeed, Period... periods) {
-		ArrayList<Period> periodsList = new ArrayList<Period>(Arrays.asList(periods));
-		for (int i = periodsList.size() - 1; i >= 0; i--) {
-			if (periodsList.get(i).duration <= 0.0001) {
-				periodsList.remove(i);
-			}
+		set(initialSpeed, periods, true);
+	}
+	
+	/**
+	 * Works everything out again from new periods, the same way the constructor does, but into the arrays this data
+	 * already has. Once the arrays are big enough for the number of periods, nothing is allocated.
+	 * 
+	 * @param initialSpeed
+	 * @param periods Acceleration periods, ordered the same way the constructor needs them
+	 */
+	void reset(double initialSpeed, Period[] periods) {
+		set(initialSpeed, periods, false);
+	}
+	
+	/**
+	 * @param exact True to make new arrays exactly as long as the number of segments, false to reuse the arrays
+	 * if they're long enough
+	 */
+	private void set(double initialSpeed, Period[] periods, boolean exact) {
+		// Once to count the segments, so the arrays can be made the right size, then again to fill them in
+		int segments = merge(periods, false);
+		
+		this.segments = segments;
+		if (exact || t.length < segments) {
+			int length = exact ? segments : periods.length;
+			this.t = new double[length];
+			this.tA = new double[length];
+			this.pA = new double[length];
+			this.omega = new double[length];
+			this.speed = new double[length];
+			this.angle = new double[length];
+			this.distance = new double[length];
 		}
+		this.speed[0] = initialSpeed;
+		this.omega[0] = 0;
+		this.angle[0] = 0;
+		this.distance[0] = 0;
 		
-		double angularTime = 0;
-		double linearTime = 0;
+		merge(periods, true);
 		
-		for (Period period : periodsList) {
-			double duration = period.duration;
-			if (period.angular) {
-				period.duration = angularTime;
-				angularTime += duration;
-			} else {
-				period.duration = linearTime;
-				linearTime += duration;
-			}
+		for (int i = 1; i < segments; i++) {
+			this.omega[i] = omega(i-1, this.t[i]);
+			this.speed[i] = speed(i-1, this.t[i]);
+			this.angle[i] = angle(i-1, this.t[i]);
+			this.distance[i] = distance(i-1, this.t[i]);
 		}
+	}
+	
+	/**
+	 * Merges the angular and linear periods into time slots by when they start. Each kind is already in time order,
+	 * so this only walks both once, keeping the time the next period of each kind starts. Periods that start at
+	 * exactly the same time go in the order they were given. Two periods that start within 0.0001 of each other
+	 * share a time slot, and every other period gets its own, keeping the other kind's rate from the slot before.
+	 * Periods of 0.0001 or less are skipped. Also sets {@link #T}, the time the angular periods end.
+	 * 
+	 * @param write False to only count the time slots
+	 * @return Number of time slots
+	 */
+	private int merge(Period[] periods, boolean write) {
+		int angular = next(periods, -1, true);
+		int linear = next(periods, -1, false);
+		double angularStart = 0;
+		double linearStart = 0;
 		
-		Collections.sort(periodsList);
+		// A period waiting to see whether it shares a time slot with the next one
+		Period held = null;
+		double heldStart = 0;
+		int n = 0;
 		
-		periods = periodsList.toArray(new Period[periodsList.size()]);
-				
-		boolean[] hasTwo = new boolean[periods.length];
-		int i = 0;		int segments = periods.length;
-		while (i < periods.length-1) {
-			if (Math.abs(periods[i].duration - periods[i+1].duration) < 0.0001) {
-				hasTwo[i] = true;
-				i++;
-				segments--;
+		while (angular < periods.length || linear < periods.length) {
+			Period period;
+			double start;
+			if (linear >= periods.length || (angular < periods.length
+					&& (angularStart < linearStart || (angularStart == linearStart && angular < linear)))) {
+				period = periods[angular];
+				start = angularStart;
+				angularStart += period.duration;
+				angular = next(periods, angular, true);
 			} else {
-				hasTwo[i] = false;
+				period = periods[linear];
+				start = linearStart;
+				linearStart += period.duration;
+				linear = next(periods, linear, false);
 			}
-			i++;
-		}
-		
-		this.T = angularTime;
-		this.t = new double[segments];
-		this.tA = new double[segments];
-		this.pA = new double[segments];
-		this.omega = new double[segments];
-		this.speed = new double[segments];
-		this.speed[0] = initialSpeed;
-		this.angle = new double[segments];
-		
-		int n = 0;
-		for (i = 0; i < periods.length; i++) {
-			Period period = periods[i];
-			this.t[n] = periods[i].duration;
 			
-			if (hasTwo[i]) {
-				if (period.angular) {
-					this.tA[n] = period.rate;
-				} else {
-					this.pA[n] = period.rate;
-				}
-				i++;
-				period = periods[i];
-				if (period.angular) {
-					this.tA[n] = period.rate;
-				} else {
-					this.pA[n] = period.rate;
+			if (held == null) {
+				held = period;
+				heldStart = start;
+			} else if (Math.abs(heldStart - start) < 0.0001) {
+				if (write) {
+					this.t[n] = heldStart;
+					this.tA[n] = 0;
+					this.pA[n] = 0;
+					rate(n, held);
+					rate(n, period);
 				}
+				n++;
+				held = null;
 			} else {
-				if (period.angular) {
-					this.tA[n] = period.rate;
-					this.pA[n] = this.pA[n-1];
-				} else {
-					this.pA[n] = period.rate;
-					this.tA[n] = this.tA[n-1];
+				if (write) {
+					single(n, held, heldStart);
 				}
+				n++;
+				held = period;
+				heldStart = start;
+			}
+		}
+		
+		if (held != null) {
+			if (write) {
+				single(n, held, heldStart);
 			}
 			n++;
 		}
 		
-		for (i = 1; i < t.length; i++) {
-			this.omega[i] = omega(i-1, this.t[i]);
-			this.speed[i] = speed(i-1, this.t[i]);
-			this.angle[i] = angle(i-1, this.t[i]);
+		this.T = angularStart;
+		return n;
+	}
+	
+	/**
+	 * @return Index of the next period after from of the given kind that isn't skipped, or periods.length if there isn't one
+	 */
+	private static int next(Period[] periods, int from, boolean angular) {
+		int i = from + 1;
+		while (i < periods.length && (periods[i].angular != angular || periods[i].duration <= 0.0001)) {
+			i++;
 		}
-
+		return i;
+	}
+	
+	private void single(int n, Period period, double start) {
+		this.t[n] = start;
+		if (period.angular) {
+			this.tA[n] = period.rate;
+			this.pA[n] = this.pA[n-1];
+		} else {
+			this.pA[n] = period.rate;
+			this.tA[n] = this.tA[n-1];
+		}
+	}
+	
+	private void rate(int n, Period period) {
+		if (period.angular) {
+			this.tA[n] = period.rate;
+		} else {
+			this.pA[n] = period.rate;
+		}
+	}
+	
+	/**
+	 * Keeps the given arrays instead of copying them, for data that was worked out before,
+	 * like the arrays {@link PathStore} copies out of a saved file.
+	 */
+	PathData(double T, double[] t, double[] tA, double[] pA, double[] speed, double[] omega, double[] angle, double[] distance) {
+		this.T = T;
+		this.segments = t.length;
+		this.t = t;
+		this.tA = tA;
+		this.pA = pA;
+		this.speed = speed;
+		this.omega = omega;
+		this.angle = angle;
+		this.distance = distance;
+	}
+	
+	/**
+	 * Copies source, negating every angular value if mirror is true.
+	 */
+	private PathData(PathData source, boolean mirror) {
+		double sign = mirror ? -1 : 1;
+		int segments = source.segments;
+		
+		this.T = source.T;
+		this.segments = segments;
+		this.t = Arrays.copyOf(source.t, segments);
+		this.pA = Arrays.copyOf(source.pA, segments);
+		this.speed = Arrays.copyOf(source.speed, segments);
+		this.distance = Arrays.copyOf(source.distance, segments);
+		this.tA = new double[segments];
+		this.omega = new double[segments];
+		this.angle = new double[segments];
+		for (int i = 0; i < segments; i++) {
+			this.tA[i] = sign * source.tA[i];
+			this.omega[i] = sign * source.omega[i];
+			this.angle[i] = sign * source.angle[i];
+		}
+	}
+	
+	/**
+	 * Creates the mirror image of this data, where the robot turns the opposite way.
+	 * Every angular acceleration, omega and angle is negated, and everything else is the same.
+	 * 
+	 * @return Mirrored copy
+	 */
+	public PathData mirror() {
+		return new PathData(this, true);
 	}
 	
 	private static double area(double h1, double h2, double dt) {
 		return (h1+h2)*dt/2;
 	}
 	
+	/**
+	 * Finds which time bracket t is in, with a binary search.
+	 * 
+	 * @param t
+	 * @return Index of the last time slot that begins at or before t
+	 */
 	public int indexForTime(double t) {
-		for (int i = 0; i < this.t.length; i++) {
-			if (this.t[i] > t) {
-				return i-1;
+		if (PathMetrics.ENABLED) {
+			PathMetrics.searched();
+		}
+		
+		int low = 0;
+		int high = this.segments;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (this.t[mid] > t) {
+				high = mid;
+			} else {
+				low = mid + 1;
 			}
 		}
 		
-		return this.t.length-1;
+		return low-1;
+	}
+	
+	/**
+	 * Finds which time bracket t is in, starting from a bracket found earlier.
+	 * If t is at or after the start of that bracket, this walks forward from it, so
+	 * looking up times that keep moving forward costs O(1) each on average.
+	 * Otherwise, this falls back to {@link #indexForTime(double)}.
+	 * 
+	 * @param t
+	 * @param hint Index of a previous time bracket
+	 * @return Index of the last time slot that begins at or before t
+	 */
+	public int indexForTime(double t, int hint) {
+		if (hint < 0 || hint >= this.segments || this.t[hint] > t) {
+			return indexForTime(t);
+		}
+		
+		if (PathMetrics.ENABLED) {
+			PathMetrics.walked();
+		}
+		while (hint < this.segments-1 && this.t[hint+1] <= t) {
+			hint++;
+		}
+		return hint;
 	}
 	
 	/**
@@ -160,6 +317,21 @@ public class PathData {
 		}
 	}
 	
+	/**
+	 * Returns the distance traveled in the direction the robot was facing, as a function of time
+	 * 
+	 * @param index Index of this t's time bracket
+	 * @param t
+	 * @return Distance
+	 */
+	public double distance(int index, double t) {
+		if (t > T) {
+			return distance[index] + area(speed[index], speed(index, T), T - this.t[index]);
+		} else {
+			return distance[index] + area(speed[index], speed(index, t), t - this.t[index]);
+		}
+	}
+	
 	/**
 	 * Returns speed in the direction currently facing as a function of time
 	 * 
@@ -0,0 +1,116 @@
+package badlib;
+
+/**
+ * Works out what a control loop needs every tick to follow a {@link Path}: the speed and acceleration each wheel should have,
+ * how far each wheel should have gone, and how far off the measured distances are from that.
+ * Call {@link #update(double, double, double)} once per tick, then read the public fields.
+ * 
+ * It keeps a {@link PathCursor}, so as long as time moves forward every tick costs the same, and nothing is allocated.
+ * Like a cursor, a follower is not thread safe.
+ */
+public class PathFollower {
+	
+	/**
+	 * How much of the distance error is added to each wheel's speed command, per second
+	 */
+	public double gain;
+	
+	/**
+	 * Time of the last update
+	 */
+	public double t;
+	
+	/**
+	 * Angle the robot should be facing (radians)
+	 */
+	public double angle;
+	
+	/**
+	 * Feed forward: what each wheel should be doing at {@link #t}
+	 */
+	public double leftSpeed, rightSpeed, leftAcceleration, rightAcceleration;
+	
+	/**
+	 * How far each wheel should have gone by {@link #t}
+	 */
+	public double leftDistance, rightDistance;
+	
+	/**
+	 * Wanted distance minus measured distance, for each wheel
+	 */
+	public double leftError, rightError;
+	
+	/**
+	 * Speed to give each wheel, the feed forward speed plus {@link #gain} times the error
+	 */
+	public double leftCommand, rightCommand;
+	
+	private final PathCursor cursor;
+	
+	PathFollower(Path path) {
+		this.cursor = path.cursor();
+	}
+	
+	/**
+	 * Works out everything for time t.
+	 * 
+	 * @param t Time since the path started
+	 * @param measuredLeft Distance the left wheel's encoder has measured since the path started
+	 * @param measuredRight Distance the right wheel's encoder has measured since the path started
+	 */
+	public void update(double t, double measuredLeft, double measuredRight) {
+		PathData data = cursor.path().data();
+		int index = cursor.index(t);
+		
+		double speed = data.speed(index, t);
+		double omega = data.omega(index, t);
+		double distance = data.distance(index, t);
+		this.angle = data.angle(index, t);
+		this.t = t;
+		
+		// Same conventions as Path.wheelSpeeds and Path.wheelDistances
+		double tangential = omega * Path.ROBOT_RADIUS;
+		double arc = angle * Path.ROBOT_RADIUS;
+		leftSpeed = speed - tangential;
+		rightSpeed = speed + tangential;
+		leftDistance = distance - arc;
+		rightDistance = distance + arc;
+		
+		if (t > data.T) {
+			// Nothing changes after the end
+			leftAcceleration = 0;
+			rightAcceleration = 0;
+		} else {
+			double angular = data.tA[index] * Path.ROBOT_RADIUS;
+			leftAcceleration = data.pA[index] - angular;
+			rightAcceleration = data.pA[index] + angular;
+		}
+		
+		leftError = leftDistance - measuredLeft;
+		rightError = rightDistance - measuredRight;
+		leftCommand = leftSpeed + gain * leftError;
+		rightCommand = rightSpeed + gain * rightError;
+	}
+	
+	/**
+	 * Moves back to the beginning of the path, for following it again.
+	 */
+	public void reset() {
+		cursor.reset();
+	}
+	
+	/**
+	 * @return The path being followed
+	 */
+	public Path path() {
+		return cursor.path();
+	}
+	
+	/**
+	 * @return Whether the last update was at or after the end of the path
+	 */
+	public boolean finished() {
+		return t >= cursor.path().duration();
+	}
+	
+}
@@ -5,146 +5,31 @@ package badlib;
  * a description of motion in polar coordinates (with constants angular and linear acceleration) and find the position
  * at any given time.
  * 
- * In order to use this class, you must first call {@link #cacheConstants(double, double)} and input the angular acceleration
- * and initial angular velocity. Some slightly intensive constants are calculated in this function, then the rest of the 
- * functions will work properly.
+ * When angular acceleration isn't 0, the integrals are evaluated by an {@link IntegrationKernel}, which holds the slightly
+ * intensive constants for the given angular acceleration and initial angular velocity. By default that's a
+ * {@link TaylorKernel}, which only uses as many terms as {@link #TOLERANCE} needs, but {@link #ENGINE} can pick a
+ * different {@link IntegrationEngine}. Nothing in this class is cached
+ * between calls, so it can be used by many threads at once.
  * 
  * @author andrew
  *
  */
 public class PathMath {
 	
-	public static final int TAYLOR_TERMS = 7;
-	private static final int TAYLOR_TERMS_OBOB = TAYLOR_TERMS+1; //+1 for OBOB
-	
-	// Cached constants for performance
-	private static double SQRT_A, INV_SQRT_A, INV_A, ADD_CONSTANT;
-	private static int SIGN;
-	
-	/**
-	 * Caches constants needed in the taylor series's later on,
-	 * for performance reasons.
-	 * 
-	 * @param a Angular acceleration (radians)
-	 * @param b Initial angular velocity (radians)
-	 */
-	public static void cacheConstants(double a, double b) {
-		SIGN = (int) Math.signum(a);
-		a = Math.abs(a);
-		SQRT_A = Math.sqrt(a/2);
-		INV_SQRT_A = 1/SQRT_A;
-		INV_A = 2 / a;
-		ADD_CONSTANT = SIGN*b/(2*SQRT_A);
-	}
-	
-	/**
-	 * Taylor series for the first integral of cosine, where the
-	 * function inside the cosine is more complicated than simple "x".
-	 * Specifically, the angle at any given time is a quadratic dependent
-	 * on angular acceleration and initial angular velocity, which makes taking
-	 * the antiderivative hard. The number of terms of the taylor series is
-	 * {@value #TAYLOR_TERMS}
-	 * 
-	 * @param x Time
-	 * @return Approximation for integral of the cosine of a function
-	 */
-	public static double cI1(double x) {
-		double sum = 0;
-		int termSign = 1;
-		for (int i = 0; i < TAYLOR_TERMS_OBOB; i++) {
-			long outer = termSign * ((4*i+1) * factorial(2*i));
-			termSign *= -1;
-			
-			double inner = Math.pow(SQRT_A * x + ADD_CONSTANT, 4*i+1) - Math.pow(ADD_CONSTANT, 4*i+1);
-			
-			double term = inner / outer;
-			sum += term;
-		}
-		
-		sum *= INV_SQRT_A;
-		return sum;
-	}
-	
 	/**
-	 * Integral of {@link #cI1(double)}.
-	 * 
-	 * @param x Time
-	 * @return Approximation for second integral of the cosine of a function
+	 * Largest error allowed in each series, used by every {@link TaylorKernel} created afterwards
 	 */
-	public static double cI2(double x) {
-		double sum = 0;
-		double c = 0;
-		int termSign = 1;
-		for (int i = 0; i < TAYLOR_TERMS_OBOB; i++) {
-			long outer = termSign * ((4*i+1) * factorial(2*i));
-			c += Math.pow(ADD_CONSTANT, 4*i+1) / outer;
-
-			outer = outer * (4*i+2);
-			termSign *= -1;
-			
-			double inner = Math.pow(SQRT_A * x + ADD_CONSTANT, 4*i+2) - Math.pow(ADD_CONSTANT, 4*i+2);
-			
-			double term = inner / outer;
-			sum += term;
-		}
-		
-		sum *= INV_A;
-		c *= INV_SQRT_A * x;
-		
-		return sum - c;
-	}
+	public static double TOLERANCE = 1e-12;
 	
 	/**
-	 * Same as {@link #cI1(double)}, except this Taylor series approximates sine.
-	 * 
-	 * @param x Time
-	 * @return Approximation for integral of the sine of a function
+	 * Most terms any series will use
 	 */
-	public static double sI1(double x) {
-		double sum = 0;
-		int termSign = 1;
-		for (int i = 0; i < TAYLOR_TERMS_OBOB; i++) {
-			long outer = termSign * ((4*i+3) * factorial(2*i+1));
-			termSign *= -1;
-			
-			double inner = Math.pow(SQRT_A * x + ADD_CONSTANT, 4*i+3) - Math.pow(ADD_CONSTANT, 4*i+3);
-			
-			double term = inner / outer;
-			sum += term;
-		}
-		
-		sum *= SIGN * INV_SQRT_A;
-		return sum;
-	}
+	public static final int MAX_TERMS = 40;
 	
 	/**
-	 * Integral of {@link #sI1(double)}.
-	 * 
-	 * @param x Time
-	 * @return Approximation for second integral of the sine of a function
+	 * Engine used for segments where angular acceleration isn't 0, unless a {@link Path} is given its own
 	 */
-	public static double sI2(double x) {
-		double sum = 0;
-		double c = 0;
-		int termSign = 1;
-		for (int i = 0; i < TAYLOR_TERMS_OBOB; i++) {
-			long outer = termSign * ((4*i+3) * factorial(2*i+1));
-			c += Math.pow(ADD_CONSTANT, 4*i+3) / outer;
-
-			outer = outer * (4*i+4);
-			termSign *= -1;
-			
-			double inner = Math.pow(SQRT_A * x + ADD_CONSTANT, 4*i+4) - Math.pow(ADD_CONSTANT, 4*i+4);
-			
-			double term = inner / outer;
-			sum += term;
-		}
-		
-		sum *= SIGN * INV_A;
-		c *= SIGN * INV_SQRT_A * x;
-		
-		return sum - c;
-	}
+	public static IntegrationEngine ENGINE = Series.TAYLOR;
 	
 	/**
 	 * When angular acceleration is 0, the antiderivative is greatly simplified, so can simply
@@ -225,6 +110,30 @@ public class PathMath {
 		point.y = x*sin + y*cos;
 	}
 	
+	/**
+	 * Same as {@link #rotatePoint(double, double, double, Point)} for elements from (inclusive) to to (exclusive)
+	 * of xs and ys, followed by moving them by (dx, dy). The cosine and sine are only found once, so the loop
+	 * is just multiplies and adds, which the JIT can turn into SIMD instructions.
+	 * 
+	 * @param xs x coordinates, overwritten
+	 * @param ys y coordinates, overwritten
+	 * @param from First element
+	 * @param to One past the last element
+	 * @param a Angle in radians
+	 * @param dx Added to x after rotating
+	 * @param dy Added to y after rotating
+	 */
+	public static void rotatePoints(double[] xs, double[] ys, int from, int to, double a, double dx, double dy) {
+		double cos = Math.cos(-a);
+		double sin = Math.sin(-a);
+		for (int i = from; i < to; i++) {
+			double x = xs[i];
+			double y = ys[i];
+			xs[i] = x*cos - y*sin + dx;
+			ys[i] = x*sin + y*cos + dy;
+		}
+	}
+	
 	public static long factorial(int n) {
 		long result = 1;
 		for (int i = 1; i <= n; i++) {
@@ -247,16 +156,138 @@ public class PathMath {
 	 * @param dest Point to be written to
 	 */
 	public static void integrate(double t, double tA, double w, double pA, double s, Point dest) {		
+		integrate(t, tA, w, pA, s, tA == 0 ? null : kernel(tA, w), dest);
+	}
+	
+	/**
+	 * Creates the kind of kernel picked by {@link #ENGINE}.
+	 * 
+	 * @param tA Theta acceleration, must not be 0
+	 * @param w Initial omega
+	 * @return The kernel
+	 */
+	public static IntegrationKernel kernel(double tA, double w) {
+		return ENGINE.kernel(tA, w);
+	}
+	
+	/**
+	 * Same as {@link #integrate(double, double, double, double, double, Point)}, but uses a
+	 * kernel that was already created for this tA and w, so nothing has to be recalculated.
+	 * 
+	 * @param t Time to integrate to
+	 * @param tA Theta acceleration
+	 * @param w Initial omega
+	 * @param pA Position acceleration
+	 * @param s Initial speed
+	 * @param kernel Kernel for tA and w, may be null if tA is 0
+	 * @param dest Point to be written to
+	 */
+	public static void integrate(double t, double tA, double w, double pA, double s, IntegrationKernel kernel, Point dest) {
 		if (tA == 0 && Math.abs(w) < 0.000001) {
+			if (PathMetrics.ENABLED) {
+				PathMetrics.straight(1);
+			}
 			dest.x = t * (s + s + pA*t) / 2;
 			dest.y = 0;
 		} else if (tA == 0) {
-			dest.x = (t*pA + s) * cI1S(t, w) + pA * cI2S(t, w);
-			dest.y = (t*pA + s) * sI1S(t, w) + pA * sI2S(t, w);
+			if (PathMetrics.ENABLED) {
+				PathMetrics.arc(1);
+			}
+			dest.x = (t*pA + s) * cI1S(t, w) - pA * cI2S(t, w);
+			dest.y = (t*pA + s) * sI1S(t, w) - pA * sI2S(t, w);
+		} else {
+			if (PathMetrics.ENABLED) {
+				PathMetrics.kernel(1);
+			}
+			kernel.integrate(t, pA, s, dest);
+		}
+	}
+	
+	/**
+	 * Same as {@link #integrate(double, double, double, double, double, IntegrationKernel, Point)}, but writes x into xs
+	 * at xIndex and y into ys at yIndex, so nothing has to be allocated to hold them on the way.
+	 * 
+	 * @param t Time to integrate to
+	 * @param tA Theta acceleration
+	 * @param w Initial omega
+	 * @param pA Position acceleration
+	 * @param s Initial speed
+	 * @param kernel Kernel for tA and w, may be null if tA is 0
+	 * @param xs Array the x coordinate is written to
+	 * @param xIndex Where in xs it goes
+	 * @param ys Array the y coordinate is written to, can be the same as xs
+	 * @param yIndex Where in ys it goes
+	 */
+	public static void integrate(double t, double tA, double w, double pA, double s, IntegrationKernel kernel, 
+			double[] xs, int xIndex, double[] ys, int yIndex) {
+		if (tA == 0 && Math.abs(w) < 0.000001) {
+			if (PathMetrics.ENABLED) {
+				PathMetrics.straight(1);
+			}
+			xs[xIndex] = t * (s + s + pA*t) / 2;
+			ys[yIndex] = 0;
+		} else if (tA == 0) {
+			if (PathMetrics.ENABLED) {
+				PathMetrics.arc(1);
+			}
+			xs[xIndex] = (t*pA + s) * cI1S(t, w) - pA * cI2S(t, w);
+			ys[yIndex] = (t*pA + s) * sI1S(t, w) - pA * sI2S(t, w);
+		} else {
+			if (PathMetrics.ENABLED) {
+				PathMetrics.kernel(1);
+			}
+			kernel.integrate(t, pA, s, xs, xIndex, ys, yIndex);
+		}
+	}
+	
+	/**
+	 * Same as {@link #integrate(double, double, double, double, double, IntegrationKernel, Point)} for many times in
+	 * the same segment. Which case applies is only decided once, so each case is a loop without branches, and the
+	 * tA = 0 case finds the sine and cosine of w*t once per time instead of twice.
+	 * 
+	 * @param times Times, elements from (inclusive) to to (exclusive) are used
+	 * @param start Time the segment starts, subtracted from every time
+	 * @param end Time the path ends, later times are treated as this time
+	 * @param from First element
+	 * @param to One past the last element
+	 * @param tA Theta acceleration
+	 * @param w Initial omega
+	 * @param pA Position acceleration
+	 * @param s Initial speed
+	 * @param kernel Kernel for tA and w, may be null if tA is 0
+	 * @param xs Where the x coordinates are written, at the same elements as the times
+	 * @param ys Where the y coordinates are written, at the same elements as the times
+	 */
+	public static void integrate(double[] times, double start, double end, int from, int to, double tA, double w, double pA, 
+			double s, IntegrationKernel kernel, double[] xs, double[] ys) {
+		if (tA == 0 && Math.abs(w) < 0.000001) {
+			if (PathMetrics.ENABLED) {
+				PathMetrics.straight(to - from);
+			}
+			for (int i = from; i < to; i++) {
+				double t = Math.min(times[i], end) - start;
+				xs[i] = t * (s + s + pA*t) / 2;
+				ys[i] = 0;
+			}
+		} else if (tA == 0) {
+			if (PathMetrics.ENABLED) {
+				PathMetrics.arc(to - from);
+			}
+			for (int i = from; i < to; i++) {
+				double t = Math.min(times[i], end) - start;
+				double v = t*pA + s;
+				double sin = Math.sin(w*t);
+				double cos = Math.cos(w*t);
+				xs[i] = v * (sin / w) - pA * ((1 - cos) / (w*w));
+				ys[i] = v * ((1 - cos) / w) - pA * ((w*t - sin) / (w*w));
+			}
 		} else {
-			cacheConstants(tA, w);
-			dest.x = (t*pA + s) * cI1(t) - pA * cI2(t);
-			dest.y = (t*pA + s) * sI1(t) - pA * sI2(t);
+			if (PathMetrics.ENABLED) {
+				PathMetrics.kernel(to - from);
+			}
+			for (int i = from; i < to; i++) {
+				kernel.integrate(Math.min(times[i], end) - start, pA, s, xs, i, ys, i);
+			}
 		}
 	}
 	
@@ -0,0 +1,162 @@
+package badlib;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Counts how often the hot parts of the library run: building and resetting {@link Path}s and how long that takes,
+ * feasibility checks and why they fail, which case {@link PathMath#integrate(double, double, double, double, double, IntegrationKernel, Point)}
+ * takes, and how segments are looked up. Read everything at once with {@link #snapshot()}.
+ * 
+ * Metrics are off unless the JVM is started with -Dbadlib.metrics=true. {@link #ENABLED} is static final, so when it's
+ * false the JIT removes every check of it and the library runs the same as if this class didn't exist.
+ * When it's true, counters are {@link LongAdder}s, so threads counting at the same time don't fight over them, and
+ * each build is also recorded as a {@link PathBuildEvent} and the counters as a periodic {@link PathMetricsEvent}
+ * for Flight Recorder. Builds allocate an event each while metrics are on, so {@link Path#reset(double, double, double, double, double, double, double)}
+ * is only free of garbage while they're off.
+ */
+public class PathMetrics {
+	
+	/**
+	 * Whether anything is counted. Read once, from the badlib.metrics system property.
+	 */
+	public static final boolean ENABLED = Boolean.getBoolean("badlib.metrics");
+	
+	private static final LongAdder BUILDS = new LongAdder();
+	private static final LongAdder RESETS = new LongAdder();
+	private static final LongAdder BUILD_NANOS = new LongAdder();
+	private static final LongAdder CHECKS = new LongAdder();
+	private static final LongAdder[] REJECTIONS = new LongAdder[Feasibility.values().length];
+	private static final LongAdder STRAIGHT = new LongAdder();
+	private static final LongAdder ARC = new LongAdder();
+	private static final LongAdder KERNEL = new LongAdder();
+	private static final LongAdder SEARCHES = new LongAdder();
+	private static final LongAdder WALKS = new LongAdder();
+	
+	static {
+		for (int i = 0; i < REJECTIONS.length; i++) {
+			REJECTIONS[i] = new LongAdder();
+		}
+		
+		if (ENABLED) {
+			FlightRecorder.addPeriodicEvent(PathMetricsEvent.class, new Runnable() {
+				@Override
+				public void run() {
+					PathMetricsEvent event = new PathMetricsEvent();
+					event.set(snapshot());
+					event.commit();
+				}
+			});
+		}
+	}
+	
+	private PathMetrics() {
+	}
+	
+	/**
+	 * @return Everything counted since the JVM started or the last {@link #reset()}
+	 */
+	public static MetricsSnapshot snapshot() {
+		long[] rejections = new long[REJECTIONS.length];
+		for (int i = 0; i < rejections.length; i++) {
+			rejections[i] = REJECTIONS[i].sum();
+		}
+		return new MetricsSnapshot(BUILDS.sum(), RESETS.sum(), BUILD_NANOS.sum(), CHECKS.sum(), rejections,
+				STRAIGHT.sum(), ARC.sum(), KERNEL.sum(), SEARCHES.sum(), WALKS.sum());
+	}
+	
+	/**
+	 * Sets every counter back to 0. Counts made while this runs may be lost.
+	 */
+	public static void reset() {
+		BUILDS.reset();
+		RESETS.reset();
+		BUILD_NANOS.reset();
+		CHECKS.reset();
+		for (LongAdder rejections : REJECTIONS) {
+			rejections.reset();
+		}
+		STRAIGHT.reset();
+		ARC.reset();
+		KERNEL.reset();
+		SEARCHES.reset();
+		WALKS.reset();
+	}
+	
+	/**
+	 * Starts timing a build. Only call when {@link #ENABLED}.
+	 */
+	static PathBuildEvent beginBuild() {
+		PathBuildEvent event = new PathBuildEvent();
+		event.begin();
+		event.start = System.nanoTime();
+		return event;
+	}
+	
+	/**
+	 * Finishes timing a build started with {@link #beginBuild()}.
+	 * 
+	 * @param feasibility Whether the build made a path, and if not, why
+	 * @param segments Number of segments the path has, or 0 if it wasn't made
+	 */
+	static void endBuild(PathBuildEvent event, boolean reset, Feasibility feasibility, int segments) {
+		BUILD_NANOS.add(System.nanoTime() - event.start);
+		if (reset) {
+			RESETS.increment();
+		} else {
+			BUILDS.increment();
+		}
+		
+		event.end();
+		if (event.shouldCommit()) {
+			event.reset = reset;
+			event.feasibility = feasibility.name();
+			event.segments = segments;
+			event.commit();
+		}
+	}
+	
+	static void checked(Feasibility feasibility) {
+		CHECKS.increment();
+		if (!feasibility.isValid()) {
+			REJECTIONS[feasibility.ordinal()].increment();
+		}
+	}
+	
+	/**
+	 * @param n Number of positions found with tA = 0 and omega = 0
+	 */
+	static void straight(int n) {
+		STRAIGHT.add(n);
+	}
+	
+	/**
+	 * @param n Number of positions found with tA = 0 and a constant omega
+	 */
+	static void arc(int n) {
+		ARC.add(n);
+	}
+	
+	/**
+	 * @param n Number of positions found with an {@link IntegrationKernel}
+	 */
+	static void kernel(int n) {
+		KERNEL.add(n);
+	}
+	
+	/**
+	 * A segment was found with a binary search.
+	 */
+	static void searched() {
+		SEARCHES.increment();
+	}
+	
+	/**
+	 * A segment was found by walking forward from a hint.
+	 */
+	static void walked() {
+		WALKS.increment();
+	}
+	
+}
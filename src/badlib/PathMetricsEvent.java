@@ -0,0 +1,64 @@
+package badlib;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event with every {@link PathMetrics} counter, recorded once a second while {@link PathMetrics#ENABLED}.
+ */
+@Name("badlib.PathMetrics")
+@Label("Path Metrics")
+@Category("badlib")
+@Description("Totals of the badlib path counters")
+@jdk.jfr.Period("1 s")
+public class PathMetricsEvent extends Event {
+	
+	@Label("Builds")
+	long builds;
+	
+	@Label("Resets")
+	long resets;
+	
+	@Label("Build Time")
+	@Timespan(Timespan.NANOSECONDS)
+	long buildNanos;
+	
+	@Label("Checks")
+	long checks;
+	
+	@Label("Rejections")
+	long rejections;
+	
+	@Label("Straight Positions")
+	long straight;
+	
+	@Label("Arc Positions")
+	long arc;
+	
+	@Label("Kernel Positions")
+	long kernel;
+	
+	@Label("Segment Searches")
+	long searches;
+	
+	@Label("Segment Walks")
+	long walks;
+	
+	void set(MetricsSnapshot snapshot) {
+		builds = snapshot.builds;
+		resets = snapshot.resets;
+		buildNanos = snapshot.buildNanos;
+		checks = snapshot.checks;
+		rejections = snapshot.rejections();
+		straight = snapshot.straight;
+		arc = snapshot.arc;
+		kernel = snapshot.kernel;
+		searches = snapshot.searches;
+		walks = snapshot.walks;
+	}
+	
+}
@@ -0,0 +1,42 @@
+package badlib;
+
+/**
+ * The result of {@link PathSolver#solve(double, double, double, Point, PathSolution)}: the omegas and middle time
+ * that were found, the path they make, and how well and how quickly it got to the point.
+ * A solution can be given back to the solver as a warm start for a nearby point.
+ */
+public class PathSolution {
+	
+	public final double omega1, omega2, middleTime;
+	
+	/**
+	 * The path made from {@link #omega1}, {@link #omega2} and {@link #middleTime}, or null if no valid path was found at all
+	 */
+	public final Path path;
+	
+	/**
+	 * Distance from the end of {@link #path} to the point that was wanted
+	 */
+	public final double error;
+	
+	/**
+	 * Number of Newton steps taken, counting every starting point that was tried
+	 */
+	public final int iterations;
+	
+	/**
+	 * True if {@link #error} is within {@link PathSolver#TOLERANCE}
+	 */
+	public final boolean converged;
+	
+	public PathSolution(double omega1, double omega2, double middleTime, Path path, double error, int iterations, boolean converged) {
+		this.omega1 = omega1;
+		this.omega2 = omega2;
+		this.middleTime = middleTime;
+		this.path = path;
+		this.error = error;
+		this.iterations = iterations;
+		this.converged = converged;
+	}
+	
+}
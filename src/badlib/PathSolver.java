@@ -0,0 +1,301 @@
+package badlib;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Finds a {@link Path} that ends at a given point, by searching over omega1, omega2 and middleTime with Newton's method.
+ * The constructor picks the last turning period so the path ends at the wanted angle with omega 0, so only the x and y
+ * of the end have to be matched. That doesn't hold when a period is too short for {@link PathData} to keep (omega1 within
+ * about 0.0001 * {@link Path#ANGLE_MAX_ACCEL} of 0, for example), so paths that don't end within {@link #ANGLE_TOLERANCE}
+ * of deltaAngle, with omega within it of 0, are treated the same as invalid ones. There are three parameters for those two
+ * values, so each step is the smallest change in the parameters that would fix the error if the path were linear
+ * in them (a minimum norm Gauss-Newton step). Steps that make an invalid path or don't get closer are cut in half until they work.
+ * If a step runs into the edge of the valid parameters, one parameter is held still so the other two can slide along it.
+ * 
+ * A previous solution for a nearby point can be given as a warm start, which usually takes only a couple of steps.
+ * Otherwise, or if the warm start fails, the search starts from the closest few of a small grid of guesses.
+ * 
+ * The derivatives of the end point are found by building the path again with each parameter nudged a little,
+ * because the end point depends on the parameters through every segment's duration as well as through the series in {@link PathMath}.
+ */
+public class PathSolver {
+	
+	/**
+	 * How close the end of the path has to be to the wanted point, in inches
+	 */
+	public static double TOLERANCE = 1e-6;
+	public static int MAX_ITERATIONS = 50;
+	
+	/**
+	 * How close the angle at the end of the path has to be to the wanted one, and omega to 0, in radians
+	 */
+	public static double ANGLE_TOLERANCE = 1e-9;
+	
+	private static final int MAX_HALVINGS = 20;
+	
+	// Values tried for the omegas and middle time when there is no warm start
+	private static final double[] START_OMEGAS = {0.25, 0.5, 1, 1.5, 2, 3};
+	private static final double[] START_MIDDLE_TIMES = {0.1, 0.3, 0.6, 1.2};
+	private static final int STARTS = 4;
+	
+	/**
+	 * Searches for a path from the origin, facing along the x axis, to dest.
+	 * 
+	 * @param startingSpeed starting linear speed
+	 * @param endingSpeed linear speed at the end, which is also the top speed
+	 * @param deltaAngle total change in theta from the origin to dest
+	 * @param dest Point the path should end at
+	 * @param warmStart A solution for a nearby point to start searching from, or null to start from scratch
+	 * @return The best solution found. Check {@link PathSolution#converged} to see if it actually reaches dest.
+	 * {@link PathSolution#iterations} counts the Newton steps of every start that was tried.
+	 */
+	public static PathSolution solve(double startingSpeed, double endingSpeed, double deltaAngle, Point dest, PathSolution warmStart) {
+		Solver solver = new Solver(startingSpeed, endingSpeed, deltaAngle, dest);
+		
+		PathSolution best = null;
+		int iterations = 0;
+		if (warmStart != null && solver.evaluate(warmStart.omega1, warmStart.omega2, warmStart.middleTime)) {
+			best = solver.solve();
+			iterations = best.iterations;
+		}
+		
+		// Without a warm start, or if it didn't work, try starting from the closest few of a grid of guesses
+		if (best == null || !best.converged) {
+			for (double[] guess : solver.guesses()) {
+				solver.evaluate(guess[0], guess[1], guess[2]);
+				PathSolution solution = solver.solve();
+				iterations += solution.iterations;
+				
+				if (best == null || solution.error < best.error) {
+					best = solution;
+				}
+				if (best.converged) {
+					break;
+				}
+			}
+		}
+		
+		if (best == null) {
+			return new PathSolution(Double.NaN, Double.NaN, Double.NaN, null, Double.POSITIVE_INFINITY, iterations, false);
+		}
+		return new PathSolution(best.omega1, best.omega2, best.middleTime, best.path, best.error, iterations, best.converged);
+	}
+	
+	/**
+	 * Holds the state of one search.
+	 */
+	private static class Solver {
+		
+		private final double startingSpeed, endingSpeed, deltaAngle;
+		private final Point dest;
+		private final Point end = new Point();
+		
+		// Current parameters, and the error in x and y of the path they make
+		private double omega1, omega2, middleTime, errorX, errorY;
+		private Path path;
+		
+		// Values found by the last call to evaluateTrial
+		private double trialX, trialY;
+		private Path trialPath;
+		
+		Solver(double startingSpeed, double endingSpeed, double deltaAngle, Point dest) {
+			this.startingSpeed = startingSpeed;
+			this.endingSpeed = endingSpeed;
+			this.deltaAngle = deltaAngle;
+			this.dest = dest;
+		}
+		
+		/**
+		 * Builds the path for these parameters and finds how far its end is from dest.
+		 * 
+		 * @return False if the parameters don't make a valid path, or one that doesn't end facing deltaAngle, not turning
+		 */
+		private boolean evaluateTrial(double o1, double o2, double m) {
+			if (!Double.isFinite(o1) || !Double.isFinite(o2) || !Double.isFinite(m) || !(m > 0) || o2 == 0
+					|| !Path.feasibility(o1, o2, m, startingSpeed, endingSpeed, endingSpeed, deltaAngle).isValid()) {
+				return false;
+			}
+			
+			trialPath = new Path(o1, o2, m, startingSpeed, endingSpeed, endingSpeed, deltaAngle);
+			double T = trialPath.duration();
+			if (!(Math.abs(trialPath.angle(T) - deltaAngle) <= ANGLE_TOLERANCE) || !(Math.abs(trialPath.omega(T)) <= ANGLE_TOLERANCE)) {
+				return false;
+			}
+			trialPath.position(T, end);
+			trialX = end.x - dest.x;
+			trialY = end.y - dest.y;
+			return !Double.isNaN(trialX) && !Double.isNaN(trialY);
+		}
+		
+		/**
+		 * Same as {@link #evaluateTrial(double, double, double)}, but makes these the current parameters if they're valid.
+		 */
+		private boolean evaluate(double o1, double o2, double m) {
+			if (!evaluateTrial(o1, o2, m)) {
+				return false;
+			}
+			
+			accept(o1, o2, m);
+			return true;
+		}
+		
+		/**
+		 * Makes the parameters from the last call to {@link #evaluateTrial(double, double, double)} the current ones.
+		 */
+		private void accept(double o1, double o2, double m) {
+			omega1 = o1;
+			omega2 = o2;
+			middleTime = m;
+			errorX = trialX;
+			errorY = trialY;
+			path = trialPath;
+		}
+		
+		private double error() {
+			return path == null ? Double.POSITIVE_INFINITY : Math.hypot(errorX, errorY);
+		}
+		
+		/**
+		 * Tries a small grid of omegas and middle times turning towards deltaAngle.
+		 * 
+		 * @return Up to {@link PathSolver#STARTS} valid guesses, closest first, as {omega1, omega2, middleTime}
+		 */
+		private List<double[]> guesses() {
+			double sign1 = deltaAngle < 0 ? -1 : 1;
+			double sign2 = deltaAngle == 0 ? -sign1 : sign1;
+			
+			List<double[]> guesses = new ArrayList<double[]>();
+			for (double o1 : START_OMEGAS) {
+				for (double o2 : START_OMEGAS) {
+					for (double m : START_MIDDLE_TIMES) {
+						if (evaluateTrial(sign1*o1, sign2*o2, m)) {
+							guesses.add(new double[]{sign1*o1, sign2*o2, m, Math.hypot(trialX, trialY)});
+						}
+					}
+				}
+			}
+			
+			Collections.sort(guesses, new Comparator<double[]>() {
+				@Override
+				public int compare(double[] a, double[] b) {
+					return Double.compare(a[3], b[3]);
+				}
+			});
+			return guesses.subList(0, Math.min(STARTS, guesses.size()));
+		}
+		
+		/**
+		 * Finds the derivative of the x and y error with respect to one parameter, by nudging it forwards,
+		 * or backwards if forwards makes an invalid path.
+		 * 
+		 * @param which 0 for omega1, 1 for omega2, 2 for middleTime
+		 * @param jacobian Row of 2 values to write dx and dy into
+		 * @return False if nudging either way makes an invalid path
+		 */
+		private boolean derivative(int which, double[] jacobian) {
+			double[] p = {omega1, omega2, middleTime};
+			double h = 1e-7 * Math.max(1, Math.abs(p[which]));
+			
+			for (int direction = 1; direction >= -1; direction -= 2) {
+				double[] q = p.clone();
+				q[which] += direction * h;
+				if (evaluateTrial(q[0], q[1], q[2])) {
+					double step = q[which] - p[which];
+					jacobian[0] = (trialX - errorX) / step;
+					jacobian[1] = (trialY - errorY) / step;
+					return true;
+				}
+			}
+			return false;
+		}
+		
+		private PathSolution solve() {
+			int iterations = 0;
+			double[][] jacobian = new double[3][2];
+			double[] step = new double[3];
+			
+			while (path != null && error() > TOLERANCE && iterations < MAX_ITERATIONS) {
+				iterations++;
+				
+				boolean ok = true;
+				for (int i = 0; i < 3 && ok; i++) {
+					ok = derivative(i, jacobian[i]);
+				}
+				if (!ok) {
+					break;
+				}
+				
+				// Try the step using all three parameters first. If that runs into the edge of the valid
+				// parameters, try holding each one still in turn, so the others can slide along the edge.
+				boolean improved = false;
+				for (int fixed = -1; fixed < 3 && !improved; fixed++) {
+					newtonStep(jacobian, fixed, step);
+					improved = lineSearch(step);
+				}
+				
+				if (!improved) {
+					break;
+				}
+			}
+			
+			return new PathSolution(omega1, omega2, middleTime, path, error(), iterations, error() <= TOLERANCE);
+		}
+		
+		/**
+		 * Finds the smallest step that would make the error 0 if it were linear in the parameters.
+		 * 
+		 * @param jacobian Derivatives of the error with respect to each parameter
+		 * @param fixed Parameter to leave alone, or -1 to use all of them
+		 * @param step Where to put the step
+		 */
+		private void newtonStep(double[][] jacobian, int fixed, double[] step) {
+			// J*J^T, a 2x2 matrix, with a tiny bit of damping in case it's singular
+			double a = 0, b = 0, d = 0;
+			for (int i = 0; i < 3; i++) {
+				if (i != fixed) {
+					a += jacobian[i][0] * jacobian[i][0];
+					b += jacobian[i][0] * jacobian[i][1];
+					d += jacobian[i][1] * jacobian[i][1];
+				}
+			}
+			double damping = 1e-12 * (a + d);
+			a += damping;
+			d += damping;
+			
+			// Solve (J*J^T) * z = error, then the step is -J^T * z
+			double determinant = a*d - b*b;
+			double zx = (d*errorX - b*errorY) / determinant;
+			double zy = (a*errorY - b*errorX) / determinant;
+			
+			for (int i = 0; i < 3; i++) {
+				step[i] = i == fixed ? 0 : -(jacobian[i][0]*zx + jacobian[i][1]*zy);
+			}
+		}
+		
+		/**
+		 * Takes as much of the step as makes a valid path that's closer, halving it until it does.
+		 * 
+		 * @return False if no part of the step helped
+		 */
+		private boolean lineSearch(double[] step) {
+			double error = error();
+			double scale = 1;
+			for (int i = 0; i < MAX_HALVINGS; i++) {
+				double o1 = omega1 + scale*step[0];
+				double o2 = omega2 + scale*step[1];
+				double m = middleTime + scale*step[2];
+				if (evaluateTrial(o1, o2, m) && Math.hypot(trialX, trialY) < error) {
+					accept(o1, o2, m);
+					return true;
+				}
+				scale /= 2;
+			}
+			return false;
+		}
+		
+	}
+	
+}
@@ -0,0 +1,300 @@
+package badlib;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Saves {@link Path}s and sampled trajectories in a small binary format, so they can be worked out ahead of time
+ * and loaded quickly later, instead of being made again when the robot starts.
+ * 
+ * A path is saved as everything it worked out when it was made: its {@link PathData} arrays, and the rotation and start
+ * of each segment. Loading one reads the file into memory and copies those arrays out of it, without working any of
+ * them out again, and makes the kernels again from the saved angular accelerations, omegas and tolerance, so a loaded
+ * path gives exactly the same answers as the one that was saved. Paths are small, so the copy costs little next to the kernels.
+ * Only paths made with a {@link Series} engine can be saved, since other engines can't be made again from a name.
+ * 
+ * Trajectories are saved from a {@link TrajectoryBuffer}, one sample after another, and are read by
+ * {@link MappedTrajectory} straight from the mapped file without copying.
+ * 
+ * Every file starts with a magic number and {@link #VERSION}, and reading a file with a different one throws
+ * an {@link IllegalArgumentException}. Numbers are big endian.
+ */
+public class PathStore {
+	
+	/**
+	 * "BLPT"
+	 */
+	public static final int PATH_MAGIC = 0x424C5054;
+	
+	/**
+	 * "BLTR"
+	 */
+	public static final int TRAJECTORY_MAGIC = 0x424C5452;
+	
+	public static final int VERSION = 1;
+	
+	// Magic, version, segments, engine, mirrored, then the tolerance and T
+	private static final int PATH_HEADER = 5*4 + 2*8;
+	private static final int PATH_ARRAYS = 10;
+	
+	// Magic, version, samples, columns
+	static final int TRAJECTORY_HEADER = 4*4;
+	static final int TRAJECTORY_COLUMNS = 14;
+	
+	/**
+	 * @param path
+	 * @return Number of bytes {@link #write(Path, ByteBuffer)} writes for the path
+	 */
+	public static int size(Path path) {
+		return PATH_HEADER + PATH_ARRAYS * 8 * path.data().segments;
+	}
+	
+	/**
+	 * Writes the path at the buffer's position, and moves the position past it.
+	 * 
+	 * @param path
+	 * @param dest Buffer with at least {@link #size(Path)} bytes remaining
+	 * @throws IllegalArgumentException If the path wasn't made with a {@link Series} engine
+	 */
+	public static void write(Path path, ByteBuffer dest) {
+		if (!(path.engine() instanceof Series)) {
+			throw new IllegalArgumentException("Only paths made with a Series engine can be saved");
+		}
+		
+		PathData data = path.data();
+		int segments = data.segments;
+		
+		// Every TaylorKernel in a path has the same tolerance
+		double tolerance = Double.NaN;
+		for (int i = 0; i < segments; i++) {
+			if (data.tA[i] != 0 && path.kernel(i) instanceof TaylorKernel) {
+				tolerance = ((TaylorKernel) path.kernel(i)).tolerance();
+				break;
+			}
+		}
+		
+		dest.putInt(PATH_MAGIC);
+		dest.putInt(VERSION);
+		dest.putInt(segments);
+		dest.putInt(((Series) path.engine()).ordinal());
+		dest.putInt(path.mirrored() ? 1 : 0);
+		dest.putDouble(tolerance);
+		dest.putDouble(data.T);
+		
+		put(dest, data.t, segments);
+		put(dest, data.tA, segments);
+		put(dest, data.pA, segments);
+		put(dest, data.speed, segments);
+		put(dest, data.omega, segments);
+		put(dest, data.angle, segments);
+		put(dest, data.distance, segments);
+		for (int i = 0; i < segments; i++) {
+			dest.putDouble(path.rotation(i));
+		}
+		for (int i = 0; i < segments; i++) {
+			dest.putDouble(path.startX(i));
+		}
+		for (int i = 0; i < segments; i++) {
+			dest.putDouble(path.startY(i));
+		}
+	}
+	
+	/**
+	 * Reads a path written by {@link #write(Path, ByteBuffer)} at the buffer's position, and moves the position past it.
+	 * The arrays are copied out of the buffer, so it can be reused afterwards.
+	 * 
+	 * @param source
+	 * @return The path
+	 * @throws IllegalArgumentException If the buffer doesn't hold a path of this {@link #VERSION}
+	 */
+	public static Path read(ByteBuffer source) {
+		if (source.remaining() < PATH_HEADER) {
+			throw new IllegalArgumentException("Damaged path");
+		}
+		check(source.getInt(), PATH_MAGIC, source.getInt());
+		
+		int segments = source.getInt();
+		int engineIndex = source.getInt();
+		boolean mirrored = source.getInt() != 0;
+		double tolerance = source.getDouble();
+		double T = source.getDouble();
+		if (segments <= 0 || engineIndex < 0 || engineIndex >= Series.values().length
+				|| source.remaining() < PATH_ARRAYS * 8L * segments) {
+			throw new IllegalArgumentException("Damaged path");
+		}
+		
+		PathData data = new PathData(
+				T,
+				get(source, segments),
+				get(source, segments),
+				get(source, segments),
+				get(source, segments),
+				get(source, segments),
+				get(source, segments),
+				get(source, segments)
+		);
+		double[] o = get(source, segments);
+		double[] px = get(source, segments);
+		double[] py = get(source, segments);
+		
+		// Made the same way the constructor made them, then mirrored if the saved path was
+		Series engine = Series.values()[engineIndex];
+		double sign = mirrored ? -1 : 1;
+		IntegrationKernel[] k = new IntegrationKernel[segments];
+		for (int i = 0; i < segments; i++) {
+			if (data.tA[i] != 0) {
+				double a = sign * data.tA[i];
+				double b = sign * data.omega(i, data.t[i]);
+				k[i] = engine == Series.TAYLOR ? new TaylorKernel(a, b, tolerance) : engine.kernel(a, b);
+				if (mirrored) {
+					k[i] = k[i].mirror();
+				}
+			}
+		}
+		
+		return new Path(data, o, px, py, k, engine, mirrored);
+	}
+	
+	/**
+	 * Saves a path to a file, replacing it if it's already there.
+	 * 
+	 * @param path
+	 * @param file
+	 * @throws IOException If the file can't be written
+	 */
+	public static void write(Path path, File file) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(size(path));
+		write(path, buffer);
+		buffer.flip();
+		writeFile(buffer, file);
+	}
+	
+	/**
+	 * Loads a path saved by {@link #write(Path, File)}.
+	 * 
+	 * @param file
+	 * @return The path
+	 * @throws IOException If the file can't be read
+	 * @throws IllegalArgumentException If the file doesn't hold a path of this {@link #VERSION}
+	 */
+	public static Path read(File file) throws IOException {
+		return read(readFile(file));
+	}
+	
+	/**
+	 * Saves the samples in a buffer to a file, replacing it if it's already there.
+	 * 
+	 * @param samples
+	 * @param file
+	 * @throws IOException If the file can't be written
+	 */
+	public static void write(TrajectoryBuffer samples, File file) throws IOException {
+		int size = samples.size;
+		ByteBuffer buffer = ByteBuffer.allocate(TRAJECTORY_HEADER + size * TRAJECTORY_COLUMNS * 8);
+		buffer.putInt(TRAJECTORY_MAGIC);
+		buffer.putInt(VERSION);
+		buffer.putInt(size);
+		buffer.putInt(TRAJECTORY_COLUMNS);
+		
+		// In the same order as MappedTrajectory's columns
+		for (int i = 0; i < size; i++) {
+			buffer.putDouble(samples.t[i]);
+			buffer.putDouble(samples.x[i]);
+			buffer.putDouble(samples.y[i]);
+			buffer.putDouble(samples.angle[i]);
+			buffer.putDouble(samples.omega[i]);
+			buffer.putDouble(samples.speed[i]);
+			buffer.putDouble(samples.leftX[i]);
+			buffer.putDouble(samples.leftY[i]);
+			buffer.putDouble(samples.rightX[i]);
+			buffer.putDouble(samples.rightY[i]);
+			buffer.putDouble(samples.leftSpeed[i]);
+			buffer.putDouble(samples.rightSpeed[i]);
+			buffer.putDouble(samples.leftDistance[i]);
+			buffer.putDouble(samples.rightDistance[i]);
+		}
+		buffer.flip();
+		writeFile(buffer, file);
+	}
+	
+	/**
+	 * Maps a trajectory saved by {@link #write(TrajectoryBuffer, File)}. Samples are read from the file as they're asked for.
+	 * 
+	 * @param file
+	 * @return The trajectory
+	 * @throws IOException If the file can't be read
+	 * @throws IllegalArgumentException If the file doesn't hold a trajectory of this {@link #VERSION}
+	 */
+	public static MappedTrajectory readTrajectory(File file) throws IOException {
+		MappedByteBuffer buffer = map(file);
+		check(buffer.getInt(0), TRAJECTORY_MAGIC, buffer.getInt(4));
+		
+		int samples = buffer.getInt(8);
+		if (samples < 0 || buffer.getInt(12) != TRAJECTORY_COLUMNS
+				|| buffer.capacity() < TRAJECTORY_HEADER + (long) samples * TRAJECTORY_COLUMNS * 8) {
+			throw new IllegalArgumentException("Damaged trajectory");
+		}
+		return new MappedTrajectory(buffer, samples);
+	}
+	
+	private static void check(int magic, int expected, int version) {
+		if (magic != expected) {
+			throw new IllegalArgumentException("Not a " + (expected == PATH_MAGIC ? "path" : "trajectory"));
+		}
+		if (version != VERSION) {
+			throw new IllegalArgumentException("Saved with version " + version + ", but this is version " + VERSION);
+		}
+	}
+	
+	private static void put(ByteBuffer dest, double[] values, int length) {
+		for (int i = 0; i < length; i++) {
+			dest.putDouble(values[i]);
+		}
+	}
+	
+	private static double[] get(ByteBuffer source, int length) {
+		double[] values = new double[length];
+		source.asDoubleBuffer().get(values);
+		source.position(source.position() + length * 8);
+		return values;
+	}
+	
+	private static MappedByteBuffer map(File file) throws IOException {
+		RandomAccessFile input = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = input.getChannel();
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		} finally {
+			input.close();
+		}
+	}
+	
+	private static ByteBuffer readFile(File file) throws IOException {
+		RandomAccessFile input = new RandomAccessFile(file, "r");
+		try {
+			byte[] bytes = new byte[(int) input.length()];
+			input.readFully(bytes);
+			return ByteBuffer.wrap(bytes);
+		} finally {
+			input.close();
+		}
+	}
+	
+	private static void writeFile(ByteBuffer buffer, File file) throws IOException {
+		RandomAccessFile output = new RandomAccessFile(file, "rw");
+		try {
+			output.setLength(0);
+			FileChannel channel = output.getChannel();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		} finally {
+			output.close();
+		}
+	}
+	
+}
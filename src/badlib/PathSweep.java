@@ -0,0 +1,152 @@
+package badlib;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * Tries every combination of a set of values for each of the parameters of
+ * {@link Path#Path(double, double, double, double, double, double, double)}. Each combination is checked with
+ * {@link Path#feasibility(double, double, double, double, double, double, double)} first, and only the valid ones are built,
+ * without being checked again.
+ * The combinations are split up between the threads of a {@link ForkJoinPool}, and a {@link SweepResult} for each
+ * one is handed to a consumer as soon as it's done.
+ */
+public class PathSweep {
+	
+	// Combinations per task, small enough to balance the work but big enough that splitting doesn't cost much
+	private static final int LEAF_SIZE = 64;
+	
+	private final double[] omega1, omega2, middleTime, startSpeed, wantedSpeed, endSpeed, deltaTheta;
+	private final long combinations;
+	
+	/**
+	 * Each parameter is given as all of the values to try for it.
+	 * See {@link #range(double, double, int)} for evenly spaced values.
+	 * 
+	 * @param omega1 starting target angular velocities
+	 * @param omega2 ending target angular velocities
+	 * @param middleTime times to go from omega1 to omega2
+	 * @param startSpeed starting linear speeds
+	 * @param wantedSpeed wanted linear speeds at max
+	 * @param endSpeed wanted linear speeds once finished
+	 * @param deltaTheta total changes in theta from point A to B
+	 */
+	public PathSweep(double[] omega1, double[] omega2, double[] middleTime, double[] startSpeed,
+			double[] wantedSpeed, double[] endSpeed, double[] deltaTheta
+	) {
+		this.omega1 = omega1.clone();
+		this.omega2 = omega2.clone();
+		this.middleTime = middleTime.clone();
+		this.startSpeed = startSpeed.clone();
+		this.wantedSpeed = wantedSpeed.clone();
+		this.endSpeed = endSpeed.clone();
+		this.deltaTheta = deltaTheta.clone();
+		this.combinations = (long) omega1.length * omega2.length * middleTime.length * startSpeed.length
+				* wantedSpeed.length * endSpeed.length * deltaTheta.length;
+	}
+	
+	/**
+	 * Makes evenly spaced values from start to end, including both.
+	 * 
+	 * @param start First value
+	 * @param end Last value
+	 * @param steps Number of values, at least 1. If it's 1, the only value is start.
+	 * @return The values
+	 */
+	public static double[] range(double start, double end, int steps) {
+		if (steps < 1) {
+			throw new IllegalArgumentException("steps must be at least 1");
+		}
+		
+		double[] values = new double[steps];
+		for (int i = 0; i < steps; i++) {
+			values[i] = steps == 1 ? start : start + (end - start) * i / (steps - 1);
+		}
+		return values;
+	}
+	
+	/**
+	 * @return Number of combinations of parameters this sweep will try
+	 */
+	public long combinations() {
+		return combinations;
+	}
+	
+	/**
+	 * Runs the sweep on {@link ForkJoinPool#commonPool()}.
+	 * 
+	 * @param consumer See {@link #run(ForkJoinPool, Consumer)}
+	 */
+	public void run(Consumer<? super SweepResult> consumer) {
+		run(ForkJoinPool.commonPool(), consumer);
+	}
+	
+	/**
+	 * Runs the sweep on the given pool, and waits for it to finish.
+	 * 
+	 * @param pool Pool to do the work in
+	 * @param consumer Gets the result for every combination, valid or not. It is called from many threads at once,
+	 * in no particular order, so it must be thread safe.
+	 */
+	public void run(ForkJoinPool pool, Consumer<? super SweepResult> consumer) {
+		pool.invoke(new Task(0, combinations, consumer));
+	}
+	
+	private SweepResult evaluate(long combination) {
+		double d = deltaTheta[(int) (combination % deltaTheta.length)];
+		combination /= deltaTheta.length;
+		double e = endSpeed[(int) (combination % endSpeed.length)];
+		combination /= endSpeed.length;
+		double w = wantedSpeed[(int) (combination % wantedSpeed.length)];
+		combination /= wantedSpeed.length;
+		double s = startSpeed[(int) (combination % startSpeed.length)];
+		combination /= startSpeed.length;
+		double m = middleTime[(int) (combination % middleTime.length)];
+		combination /= middleTime.length;
+		double o2 = omega2[(int) (combination % omega2.length)];
+		combination /= omega2.length;
+		double o1 = omega1[(int) combination];
+		
+		Feasibility feasibility = Path.feasibility(o1, o2, m, s, w, e, d);
+		if (!feasibility.isValid()) {
+			return new SweepResult(o1, o2, m, s, w, e, d, feasibility, null, Double.NaN);
+		}
+		
+		Path path = new Path(o1, o2, m, s, w, e, 0, 0, 0, 0, 0, d, PathMath.ENGINE, feasibility);
+		Point endpoint = new Point();
+		path.position(path.duration(), endpoint);
+		return new SweepResult(o1, o2, m, s, w, e, d, feasibility, endpoint, path.duration());
+	}
+	
+	/**
+	 * Evaluates the combinations from start (inclusive) to end (exclusive), splitting in half until the pieces are small.
+	 */
+	private class Task extends RecursiveAction {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final long start, end;
+		private final Consumer<? super SweepResult> consumer;
+		
+		Task(long start, long end, Consumer<? super SweepResult> consumer) {
+			this.start = start;
+			this.end = end;
+			this.consumer = consumer;
+		}
+		
+		@Override
+		protected void compute() {
+			if (end - start <= LEAF_SIZE) {
+				for (long i = start; i < end; i++) {
+					consumer.accept(evaluate(i));
+				}
+			} else {
+				long middle = (start + end) >>> 1;
+				invokeAll(new Task(start, middle, consumer), new Task(middle, end, consumer));
+			}
+		}
+		
+	}
+	
+}
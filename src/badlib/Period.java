@@ -19,9 +19,7 @@ public class Period implements Comparable<Period> {
 	
 	@Override
 	public int compareTo(Period o) {
-		double delta = this.duration - o.duration;
-		delta += Math.signum(delta);
-		return (int)delta;
+		return Double.compare(this.duration, o.duration);
 	}
 	
 }
@@ -0,0 +1,330 @@
+package badlib;
+
+/**
+ * A {@link Path} that has been sampled ahead of time at a fixed period, so that looking up the state
+ * of the robot at any time is just an index and an interpolation instead of evaluating the Taylor series's.
+ * Each sample stores the position, angle, omega, speed and distance traveled of the robot, packed together
+ * in one primitive array. In float mode the samples are stored as floats, which halves the memory used.
+ * 
+ * The samples land exactly on the beginning and end of the path, so the period actually used may be
+ * slightly smaller than the one asked for; see {@link #dt()}. Times past the end of the path give the
+ * state at the end of the path, same as {@link Path}.
+ * 
+ * After the samples are taken, the trajectory is compared with the path a few times between each pair of samples,
+ * and the largest differences found are available from {@link #maxPositionError()} and {@link #maxAngleError()}.
+ */
+public class PrecomputedTrajectory {
+	
+	private static final int X = 0, Y = 1, ANGLE = 2, OMEGA = 3, SPEED = 4, DISTANCE = 5;
+	private static final int COLUMNS = 6;
+	
+	private final double dt, invDt, duration, radius;
+	private final int samples;
+	private final Interpolation interpolation;
+	
+	// Only one of these is used, depending on float mode
+	private final double[] data;
+	private final float[] floatData;
+	
+	private double maxPositionError, maxAngleError;
+	
+	/**
+	 * Samples the path every dt, storing the samples as doubles and using {@link Interpolation#HERMITE}.
+	 * 
+	 * @param path
+	 * @param dt Wanted time between samples
+	 */
+	public PrecomputedTrajectory(Path path, double dt) {
+		this(path, dt, Interpolation.HERMITE, false);
+	}
+	
+	/**
+	 * Samples the path every dt. {@link Path#ROBOT_RADIUS} is read now, and used for all the wheel values later.
+	 * 
+	 * @param path
+	 * @param dt Wanted time between samples
+	 * @param interpolation How to find values between samples
+	 * @param floats True to store samples as floats instead of doubles
+	 */
+	public PrecomputedTrajectory(Path path, double dt, Interpolation interpolation, boolean floats) {
+		if (!(dt > 0)) {
+			throw new IllegalArgumentException("dt must be positive");
+		}
+		
+		this.duration = path.duration();
+		int intervals = Math.max(1, (int) Math.ceil(duration / dt));
+		this.samples = intervals + 1;
+		this.dt = duration / intervals;
+		this.invDt = intervals / duration;
+		this.radius = Path.ROBOT_RADIUS;
+		this.interpolation = interpolation;
+		
+		// The last sample is taken on its own so that it is exactly the end, not a rounding error away from it
+		TrajectoryBuffer buffer = new TrajectoryBuffer(samples);
+		TrajectoryBuffer end = new TrajectoryBuffer(1);
+		path.sample(0, this.dt, samples - 1, buffer);
+		path.sample(duration, 0, 1, end);
+		
+		if (floats) {
+			this.data = null;
+			this.floatData = new float[samples * COLUMNS];
+		} else {
+			this.data = new double[samples * COLUMNS];
+			this.floatData = null;
+		}
+		
+		double[] row = new double[COLUMNS];
+		for (int i = 0; i < samples; i++) {
+			TrajectoryBuffer source = i == samples - 1 ? end : buffer;
+			int j = i == samples - 1 ? 0 : i;
+			
+			row[X] = source.x[j];
+			row[Y] = source.y[j];
+			row[ANGLE] = source.angle[j];
+			row[OMEGA] = source.omega[j];
+			row[SPEED] = source.speed[j];
+			row[DISTANCE] = (source.leftDistance[j] + source.rightDistance[j]) / 2;
+			
+			for (int c = 0; c < COLUMNS; c++) {
+				if (floats) {
+					floatData[i*COLUMNS + c] = (float) row[c];
+				} else {
+					data[i*COLUMNS + c] = row[c];
+				}
+			}
+		}
+		
+		measureError(path, buffer);
+	}
+	
+	/**
+	 * Compares the trajectory to the path at a quarter, half and three quarters of the way between each pair of samples.
+	 */
+	private void measureError(Path path, TrajectoryBuffer buffer) {
+		Point pos = new Point();
+		for (int k = 1; k <= 3; k++) {
+			path.sample(dt * k / 4, dt, samples - 1, buffer);
+			for (int i = 0; i < buffer.size; i++) {
+				double t = buffer.t[i];
+				position(t, pos);
+				
+				double dx = pos.x - buffer.x[i];
+				double dy = pos.y - buffer.y[i];
+				maxPositionError = Math.max(maxPositionError, Math.sqrt(dx*dx + dy*dy));
+				maxAngleError = Math.max(maxAngleError, Math.abs(angle(t) - buffer.angle[i]));
+			}
+		}
+	}
+	
+	private double value(int sample, int column) {
+		if (data != null) {
+			return data[sample*COLUMNS + column];
+		} else {
+			return floatData[sample*COLUMNS + column];
+		}
+	}
+	
+	/**
+	 * Index of the sample at or before t, clamped so that there is always a sample after it.
+	 */
+	private int index(double t) {
+		int i = (int) (t * invDt);
+		if (i < 0) {
+			return 0;
+		} else if (i > samples - 2) {
+			return samples - 2;
+		}
+		return i;
+	}
+	
+	/**
+	 * How far t is from sample i to sample i+1, from 0 to 1.
+	 */
+	private double fraction(int i, double t) {
+		if (t > duration) {
+			t = duration;
+		} else if (t < 0) {
+			t = 0;
+		}
+		return t * invDt - i;
+	}
+	
+	private double linear(int i, double s, int column) {
+		double a = value(i, column);
+		return a + (value(i+1, column) - a) * s;
+	}
+	
+	/**
+	 * Interpolates a column using the given slopes (per unit of time) at samples i and i+1.
+	 */
+	private double interpolate(int i, double s, int column, double slope0, double slope1) {
+		if (interpolation == Interpolation.LINEAR) {
+			return linear(i, s, column);
+		}
+		
+		double s2 = s*s;
+		double s3 = s2*s;
+		return (2*s3 - 3*s2 + 1) * value(i, column)
+				+ (s3 - 2*s2 + s) * dt * slope0
+				+ (-2*s3 + 3*s2) * value(i+1, column)
+				+ (s3 - s2) * dt * slope1;
+	}
+	
+	/**
+	 * Same as {@link Path#angle(double)}.
+	 * 
+	 * @param t
+	 * @return Angle in radians
+	 */
+	public double angle(double t) {
+		int i = index(t);
+		return interpolate(i, fraction(i, t), ANGLE, value(i, OMEGA), value(i+1, OMEGA));
+	}
+	
+	/**
+	 * Same as {@link Path#omega(double)}.
+	 * 
+	 * @param t
+	 * @return Omega (radians)
+	 */
+	public double omega(double t) {
+		int i = index(t);
+		return linear(i, fraction(i, t), OMEGA);
+	}
+	
+	/**
+	 * Same as {@link Path#speed(double)}.
+	 * 
+	 * @param t
+	 * @return Speed
+	 */
+	public double speed(double t) {
+		int i = index(t);
+		return linear(i, fraction(i, t), SPEED);
+	}
+	
+	/**
+	 * Same as {@link Path#position(double, Point)}.
+	 * 
+	 * @param t
+	 * @param dest The {@link Point} to put the coordinates into.
+	 */
+	public void position(double t, Point dest) {
+		int i = index(t);
+		double s = fraction(i, t);
+		
+		if (interpolation == Interpolation.LINEAR) {
+			dest.x = linear(i, s, X);
+			dest.y = linear(i, s, Y);
+		} else {
+			double speed0 = value(i, SPEED);
+			double speed1 = value(i+1, SPEED);
+			double angle0 = value(i, ANGLE);
+			double angle1 = value(i+1, ANGLE);
+			dest.x = interpolate(i, s, X, speed0 * Math.cos(angle0), speed1 * Math.cos(angle1));
+			dest.y = interpolate(i, s, Y, speed0 * Math.sin(angle0), speed1 * Math.sin(angle1));
+		}
+	}
+	
+	/**
+	 * Same as {@link Path#wheelPositions(double, Point, Point)}.
+	 * 
+	 * @param t
+	 * @param left Left wheel's (x, y) position as a {@link Point}
+	 * @param right Right wheel's (x, y) position as a {@link Point}
+	 */
+	public void wheelPositions(double t, Point left, Point right) {
+		double angle = angle(t);
+		position(t, left);
+		
+		double dx = radius * Math.sin(angle);
+		double dy = -radius * Math.cos(angle);
+		right.x = left.x + dx;
+		right.y = left.y + dy;
+		left.x -= dx;
+		left.y -= dy;
+	}
+	
+	/**
+	 * Same as {@link Path#wheelSpeeds(double, Point)}.
+	 * 
+	 * @param t
+	 * @param dest A {@link Point} where x is the left wheel and y is the right wheel -- (left, right)
+	 */
+	public void wheelSpeeds(double t, Point dest) {
+		int i = index(t);
+		double s = fraction(i, t);
+		double speed = linear(i, s, SPEED);
+		double tangential = linear(i, s, OMEGA) * radius;
+		
+		dest.x = speed - tangential;
+		dest.y = speed + tangential;
+	}
+	
+	/**
+	 * Same as {@link Path#wheelDistances(double, Point)}.
+	 * 
+	 * @param t
+	 * @param dest A {@link Point} where x is the left wheel and y is the right wheel -- (left, right)
+	 */
+	public void wheelDistances(double t, Point dest) {
+		int i = index(t);
+		double s = fraction(i, t);
+		double distance = interpolate(i, s, DISTANCE, value(i, SPEED), value(i+1, SPEED));
+		double arc = angle(t) * radius;
+		
+		dest.x = distance - arc;
+		dest.y = distance + arc;
+	}
+	
+	/**
+	 * @return Largest distance found between a position from this trajectory and from the path it was made from
+	 */
+	public double maxPositionError() {
+		return maxPositionError;
+	}
+	
+	/**
+	 * @return Largest difference found between an angle from this trajectory and from the path it was made from
+	 */
+	public double maxAngleError() {
+		return maxAngleError;
+	}
+	
+	/**
+	 * @return Time between samples
+	 */
+	public double dt() {
+		return dt;
+	}
+	
+	/**
+	 * @return Number of samples stored
+	 */
+	public int samples() {
+		return samples;
+	}
+	
+	/**
+	 * @return True if the samples are stored as floats
+	 */
+	public boolean isFloat() {
+		return floatData != null;
+	}
+	
+	/**
+	 * @return How values are found between samples
+	 */
+	public Interpolation interpolation() {
+		return interpolation;
+	}
+	
+	/**
+	 * Time for the whole path to complete
+	 * @return Time
+	 */
+	public double duration() {
+		return duration;
+	}
+	
+}
@@ -0,0 +1,234 @@
+package badlib;
+
+/**
+ * A whole routine made of {@link Path}s driven one after another. Each path (leg) starts where the last one ended,
+ * facing the way it ended, and has to start at the speed and omega the last one ended at.
+ * 
+ * Every path starts at the origin facing along the x axis, so the pose each leg starts at is worked out once, when
+ * the route is made, and each leg's answers are rotated into place with {@link PathMath#rotatePoint(double, double, double, Point)}
+ * and moved. Queries take the time since the start of the route, and find the leg with a binary search over the times the legs start.
+ * Wheel distances carry on from one leg to the next, using the distances the wheels had gone at the start of each leg,
+ * which are also worked out once. Since all of that depends on the legs staying the same, the legs can't be
+ * {@link Path#reset(double, double, double, double, double, double, double) reset} once they're in a route.
+ */
+public class Route {
+	
+	/**
+	 * Largest difference allowed between the speed one leg ends at and the next one starts at
+	 */
+	public static double SPEED_TOLERANCE = 1e-9;
+	
+	/**
+	 * Largest difference allowed between the omega one leg ends at and the next one starts at
+	 */
+	public static double OMEGA_TOLERANCE = 1e-9;
+	
+	private final Path[] legs;
+	
+	// For each leg, when it starts, and the pose and wheel distances it starts with
+	private final double[] start;
+	private final double[] x, y, heading;
+	private final double[] left, right;
+	
+	private final double duration;
+	
+	/**
+	 * @param legs Paths to drive, in order. From now on, resetting any of them throws {@link IllegalStateException}.
+	 * @throws IllegalArgumentException If there are no legs, or a leg doesn't start at the speed and omega the one before it ends at
+	 */
+	public Route(Path... legs) {
+		if (legs.length == 0) {
+			throw new IllegalArgumentException("A route needs at least one leg");
+		}
+		
+		this.legs = legs.clone();
+		this.start = new double[legs.length];
+		this.x = new double[legs.length];
+		this.y = new double[legs.length];
+		this.heading = new double[legs.length];
+		this.left = new double[legs.length];
+		this.right = new double[legs.length];
+		
+		Point end = new Point();
+		Point distances = new Point();
+		for (int i = 1; i < legs.length; i++) {
+			Path last = legs[i-1];
+			double lastDuration = last.duration();
+			double endSpeed = last.speed(lastDuration);
+			if (Math.abs(endSpeed - legs[i].speed(0)) > SPEED_TOLERANCE) {
+				throw new IllegalArgumentException("Leg " + i + " starts at speed " + legs[i].speed(0) +
+						" but leg " + (i-1) + " ends at speed " + endSpeed);
+			}
+			double endOmega = last.omega(lastDuration);
+			if (Math.abs(endOmega - legs[i].omega(0)) > OMEGA_TOLERANCE) {
+				throw new IllegalArgumentException("Leg " + i + " starts at omega " + legs[i].omega(0) +
+						" but leg " + (i-1) + " ends at omega " + endOmega);
+			}
+			
+			last.position(lastDuration, end);
+			PathMath.rotatePoint(end.x, end.y, -heading[i-1], end);
+			last.wheelDistances(lastDuration, distances);
+			
+			start[i] = start[i-1] + lastDuration;
+			x[i] = x[i-1] + end.x;
+			y[i] = y[i-1] + end.y;
+			heading[i] = heading[i-1] + last.angle(lastDuration);
+			left[i] = left[i-1] + distances.x;
+			right[i] = right[i-1] + distances.y;
+		}
+		
+		Path last = legs[legs.length-1];
+		this.duration = start[legs.length-1] + last.duration();
+		
+		// Only once the route is sure to be made, so legs of a route that isn't possible can still be reset
+		for (Path leg : this.legs) {
+			leg.share();
+		}
+	}
+	
+	/**
+	 * Finds which leg is being driven at time t, with a binary search.
+	 * Times after the end are in the last leg.
+	 * 
+	 * @param t Time since the route started
+	 * @return Index of the last leg that starts at or before t
+	 */
+	public int legForTime(double t) {
+		int low = 0;
+		int high = start.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (start[mid] > t) {
+				high = mid;
+			} else {
+				low = mid + 1;
+			}
+		}
+		
+		return Math.max(low-1, 0);
+	}
+	
+	/**
+	 * @return Number of legs
+	 */
+	public int legCount() {
+		return legs.length;
+	}
+	
+	/**
+	 * @param index Index of the leg
+	 * @return The leg's path
+	 */
+	public Path leg(int index) {
+		return legs[index];
+	}
+	
+	/**
+	 * @param index Index of the leg
+	 * @return Time since the route started that the leg starts
+	 */
+	public double legStart(int index) {
+		return start[index];
+	}
+	
+	/**
+	 * Time for the whole route to complete
+	 * @return Time
+	 */
+	public double duration() {
+		return duration;
+	}
+	
+	/**
+	 * Returns the angle the robot is facing as a function of time
+	 * 
+	 * @param t
+	 * @return Angle in radians
+	 */
+	public double angle(double t) {
+		int leg = legForTime(t);
+		return heading[leg] + legs[leg].angle(t - start[leg]);
+	}
+	
+	/**
+	 * Returns angular velocity as a function of time
+	 * 
+	 * @param t
+	 * @return Omega (radians)
+	 */
+	public double omega(double t) {
+		int leg = legForTime(t);
+		return legs[leg].omega(t - start[leg]);
+	}
+	
+	/**
+	 * Returns speed in the direction currently facing as a function of time
+	 * 
+	 * @param t
+	 * @return Speed
+	 */
+	public double speed(double t) {
+		int leg = legForTime(t);
+		return legs[leg].speed(t - start[leg]);
+	}
+	
+	/**
+	 * Finds the (x, y) position of the robot at time t
+	 * 
+	 * @param t
+	 * @param dest The {@link Point} to put the coordinates into.
+	 */
+	public void position(double t, Point dest) {
+		int leg = legForTime(t);
+		legs[leg].position(t - start[leg], dest);
+		place(leg, dest);
+	}
+	
+	/**
+	 * Finds the position of each wheel as a function of time.
+	 * 
+	 * @param t
+	 * @param left Left wheel's (x, y) position as a {@link Point}
+	 * @param right Right wheel's (x, y) position as a {@link Point}
+	 */
+	public void wheelPositions(double t, Point left, Point right) {
+		int leg = legForTime(t);
+		legs[leg].wheelPositions(t - start[leg], left, right);
+		place(leg, left);
+		place(leg, right);
+	}
+	
+	/**
+	 * Finds the speed of the wheel in units at the given time.
+	 * 
+	 * @param t
+	 * @param dest A {@link Point} where x is the left wheel and y is the right wheel -- (left, right)
+	 */
+	public void wheelSpeeds(double t, Point dest) {
+		int leg = legForTime(t);
+		legs[leg].wheelSpeeds(t - start[leg], dest);
+	}
+	
+	/**
+	 * Finds the distance each wheel has traveled in units at the given time, since the route started.
+	 * 
+	 * @param t
+	 * @param dest A {@link Point} where x is the left wheel and y is the right wheel -- (left, right)
+	 */
+	public void wheelDistances(double t, Point dest) {
+		int leg = legForTime(t);
+		legs[leg].wheelDistances(t - start[leg], dest);
+		dest.x += left[leg];
+		dest.y += right[leg];
+	}
+	
+	/**
+	 * Moves a point from where it is in the leg's path to where it is in the route.
+	 */
+	private void place(int leg, Point point) {
+		PathMath.rotatePoint(point.x, point.y, -heading[leg], point);
+		point.x += x[leg];
+		point.y += y[leg];
+	}
+	
+}
@@ -0,0 +1,63 @@
+package badlib;
+
+/**
+ * The {@link IntegrationEngine}s that evaluate a series for each segment.
+ */
+public enum Series implements IntegrationEngine {
+	
+	/**
+	 * {@link TaylorKernel}, which adds up only as many terms as {@link PathMath#TOLERANCE} needs
+	 */
+	TAYLOR,
+	
+	/**
+	 * {@link FresnelKernel}, which always takes the same time and is accurate to about 1e-15 everywhere
+	 */
+	FRESNEL;
+	
+	/**
+	 * Creates a kernel of this type.
+	 * 
+	 * @param a Angular acceleration (radians), must not be 0
+	 * @param b Initial angular velocity (radians)
+	 * @return The kernel
+	 */
+	@Override
+	public IntegrationKernel kernel(double a, double b) {
+		switch (this) {
+			case FRESNEL:
+				return new FresnelKernel(a, b);
+			default:
+				return new TaylorKernel(a, b);
+		}
+	}
+	
+	/**
+	 * Makes old into the kernel {@link #kernel(double, double)} would make, if it's one of this type,
+	 * so nothing is allocated. Otherwise a new kernel is made.
+	 * 
+	 * @param old Kernel to reuse, can be null
+	 * @param a Angular acceleration (radians), must not be 0
+	 * @param b Initial angular velocity (radians)
+	 * @param f Scratch space
+	 * @param g Scratch space
+	 * @return The kernel
+	 */
+	IntegrationKernel reuse(IntegrationKernel old, double a, double b, Point f, Point g) {
+		switch (this) {
+			case FRESNEL:
+				if (old instanceof FresnelKernel) {
+					((FresnelKernel) old).set(a, b, f, g);
+					return old;
+				}
+				break;
+			default:
+				if (old instanceof TaylorKernel) {
+					((TaylorKernel) old).set(a, b, PathMath.TOLERANCE, f, g);
+					return old;
+				}
+		}
+		return kernel(a, b);
+	}
+	
+}
@@ -0,0 +1,146 @@
+package badlib;
+
+/**
+ * Integrates the motion of a segment numerically with adaptive Simpson's rule, instead of with a series like
+ * {@link TaylorKernel} and {@link FresnelKernel}. It is much slower than both, but it only relies on {@link Math#cos(double)}
+ * and {@link Math#sin(double)}, so it is a good reference to compare them to.
+ * 
+ * The angle includes the same constant b^2/(2a) the other kernels leave in, so {@link PathMath#offset(double, double)}
+ * works the same way for all of them.
+ */
+public class SimpsonKernel implements IntegrationKernel {
+	
+	/**
+	 * Most times an interval gets split in half
+	 */
+	public static final int MAX_DEPTH = 40;
+	
+	private final double a, b, offset, tolerance;
+	
+	/**
+	 * @param a Angular acceleration (radians), must not be 0
+	 * @param b Initial angular velocity (radians)
+	 * @param tolerance Largest error allowed in each integral
+	 */
+	public SimpsonKernel(double a, double b, double tolerance) {
+		if (!(tolerance > 0)) {
+			throw new IllegalArgumentException("Tolerance must be more than 0");
+		}
+		
+		this.a = a;
+		this.b = b;
+		// Only the remainder matters, and a small one keeps the angles below from losing precision
+		this.offset = Math.IEEEremainder(b*b / (2*a), 2*Math.PI);
+		this.tolerance = tolerance;
+	}
+	
+	/**
+	 * Creates an engine that makes a {@link SimpsonKernel} for every segment.
+	 * 
+	 * @param tolerance Largest error allowed in each integral
+	 * @return The engine
+	 */
+	public static IntegrationEngine engine(final double tolerance) {
+		if (!(tolerance > 0)) {
+			throw new IllegalArgumentException("Tolerance must be more than 0");
+		}
+		
+		return new IntegrationEngine() {
+			@Override
+			public IntegrationKernel kernel(double a, double b) {
+				return new SimpsonKernel(a, b, tolerance);
+			}
+			
+			@Override
+			public String toString() {
+				return "SIMPSON(" + tolerance + ")";
+			}
+		};
+	}
+	
+	/**
+	 * @return Largest error allowed in each integral
+	 */
+	public double tolerance() {
+		return tolerance;
+	}
+	
+	@Override
+	public SimpsonKernel mirror() {
+		return new SimpsonKernel(-a, -b, tolerance);
+	}
+	
+	@Override
+	public double cI1(double x) {
+		return integral(x, 1, 0, true);
+	}
+	
+	@Override
+	public double cI2(double x) {
+		// Integrating twice is the same as integrating once with a weight of (x - t)
+		return integral(x, x, -1, true);
+	}
+	
+	@Override
+	public double sI1(double x) {
+		return integral(x, 1, 0, false);
+	}
+	
+	@Override
+	public double sI2(double x) {
+		return integral(x, x, -1, false);
+	}
+	
+	@Override
+	public void integrate(double x, double pA, double s, Point dest) {
+		// The speed at time t is s + pA*t
+		dest.x = integral(x, s, pA, true);
+		dest.y = integral(x, s, pA, false);
+	}
+	
+	@Override
+	public void integrate(double x, double pA, double s, double[] xs, int xIndex, double[] ys, int yIndex) {
+		xs[xIndex] = integral(x, s, pA, true);
+		ys[yIndex] = integral(x, s, pA, false);
+	}
+	
+	@Override
+	public double errorBound(double x, double pA, double s) {
+		return tolerance * Math.sqrt(2);
+	}
+	
+	/**
+	 * Integrates (c0 + c1*t) times the cosine or sine of the angle from 0 to x.
+	 */
+	private double integral(double x, double c0, double c1, boolean cosine) {
+		double fa = f(0, c0, c1, cosine);
+		double fm = f(x/2, c0, c1, cosine);
+		double fb = f(x, c0, c1, cosine);
+		double whole = x * (fa + 4*fm + fb) / 6;
+		return simpson(0, x, fa, fm, fb, whole, tolerance, MAX_DEPTH, c0, c1, cosine);
+	}
+	
+	private double simpson(double from, double to, double fa, double fm, double fb, double whole, double tolerance,
+			int depth, double c0, double c1, boolean cosine) {
+		double middle = (from + to) / 2;
+		double leftMiddle = (from + middle) / 2;
+		double rightMiddle = (middle + to) / 2;
+		double flm = f(leftMiddle, c0, c1, cosine);
+		double frm = f(rightMiddle, c0, c1, cosine);
+		double left = (middle - from) * (fa + 4*flm + fm) / 6;
+		double right = (to - middle) * (fm + 4*frm + fb) / 6;
+		double difference = left + right - whole;
+		
+		if (depth <= 0 || Math.abs(difference) <= 15 * tolerance) {
+			return left + right + difference / 15;
+		}
+		return simpson(from, middle, fa, flm, fm, left, tolerance / 2, depth - 1, c0, c1, cosine)
+				+ simpson(middle, to, fm, frm, fb, right, tolerance / 2, depth - 1, c0, c1, cosine);
+	}
+	
+	private double f(double t, double c0, double c1, boolean cosine) {
+		double angle = a*t*t/2 + b*t + offset;
+		return (c0 + c1*t) * (cosine ? Math.cos(angle) : Math.sin(angle));
+	}
+	
+}
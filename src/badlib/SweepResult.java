@@ -0,0 +1,40 @@
+package badlib;
+
+/**
+ * One set of parameters tried by a {@link PathSweep}, and what came of it.
+ */
+public class SweepResult {
+	
+	public final double omega1, omega2, middleTime, startSpeed, wantedSpeed, endSpeed, deltaTheta;
+	
+	/**
+	 * Whether the parameters make a valid path, and if not, why
+	 */
+	public final Feasibility feasibility;
+	
+	/**
+	 * Where the path ends, or null if the parameters aren't valid
+	 */
+	public final Point endpoint;
+	
+	/**
+	 * How long the path takes, or NaN if the parameters aren't valid
+	 */
+	public final double duration;
+	
+	public SweepResult(double omega1, double omega2, double middleTime, double startSpeed, double wantedSpeed,
+			double endSpeed, double deltaTheta, Feasibility feasibility, Point endpoint, double duration
+	) {
+		this.omega1 = omega1;
+		this.omega2 = omega2;
+		this.middleTime = middleTime;
+		this.startSpeed = startSpeed;
+		this.wantedSpeed = wantedSpeed;
+		this.endSpeed = endSpeed;
+		this.deltaTheta = deltaTheta;
+		this.feasibility = feasibility;
+		this.endpoint = endpoint;
+		this.duration = duration;
+	}
+	
+}
@@ -0,0 +1,543 @@
+package badlib;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+/**
+ * Holds the constants for the Taylor series's used by {@link PathMath} for one segment of a path,
+ * where the angular acceleration and initial angular velocity don't change. The constants are
+ * calculated when the kernel is created. A kernel made outside of a {@link Path} never changes after that, so it can be
+ * evaluated by any number of threads at the same time.
+ * 
+ * The kernels a path makes for itself are different: {@link Path#reset(double, double, double, double, double, double, double)}
+ * rewrites them in place, without any locking, so a thread using one while another thread resets the path can see a mix
+ * of the old and new constants and get a wrong position. Only share a path, or its kernels, between threads while
+ * nothing resets it.
+ * 
+ * Substituting u = sqrtA*x + addConstant turns every integral into one of cos(u^2) or sin(u^2) (and the integral of that),
+ * so everything comes down to F(u) = integral of e^(i*t^2) from 0 to u, and G(u) = integral of F from 0 to u.
+ * A single series around 0 needs more and more terms as u grows, and the terms get so big that they cancel away
+ * all of the precision. Instead, u is reduced to the nearest of a set of knots, {@link #KNOT_SPACING} apart, and a Taylor
+ * series around that knot is used, which always converges quickly. Past the last knot an asymptotic series is used.
+ * Either way terms are only added until the rest of the series is known to be smaller than the tolerance
+ * the kernel was made with, and the bound that was reached is available from {@link #errorBound(double, double, double)}.
+ */
+public class TaylorKernel implements IntegrationKernel {
+	
+	private static final double KNOT_SPACING = 0.25;
+	private static final int KNOTS = 25;
+	private static final double LAST_KNOT = KNOT_SPACING * (KNOTS - 1);
+	
+	// F and G as u goes to infinity, along both the cosine and sine directions
+	private static final double F_INFINITY = Math.sqrt(Math.PI / 8);
+	
+	// Value of F at each knot (cosine and sine parts)
+	private static final double[] FC = new double[KNOTS];
+	private static final double[] FS = new double[KNOTS];
+	
+	// Value of G at each knot
+	private static final double[] GC = new double[KNOTS];
+	private static final double[] GS = new double[KNOTS];
+	
+	// Coefficients of h^(n+1) in F(knot + h) - F(knot), and of h^(n+2) in G(knot + h) - G(knot) - F(knot)*h
+	private static final double[][] QC = new double[KNOTS][PathMath.MAX_TERMS];
+	private static final double[][] QS = new double[KNOTS][PathMath.MAX_TERMS];
+	private static final double[][] RC = new double[KNOTS][PathMath.MAX_TERMS];
+	private static final double[][] RS = new double[KNOTS][PathMath.MAX_TERMS];
+	
+	// Size of the coefficients of h^n in e^(i*(knot + h)^2) / e^(i*knot^2), used to bound the rest of the series
+	private static final double[][] P = new double[KNOTS][PathMath.MAX_TERMS];
+	
+	// 1/(n+1)
+	private static final double[] INVERSE = new double[PathMath.MAX_TERMS + 1];
+	
+	static {
+		for (int n = 0; n < INVERSE.length; n++) {
+			INVERSE[n] = 1.0 / (n+1);
+		}
+		
+		MathContext context = new MathContext(60);
+		BigDecimal tiny = new BigDecimal("1e-45");
+		
+		for (int k = 0; k < KNOTS; k++) {
+			double knot = k * KNOT_SPACING;
+			
+			// The plain series around 0 cancels too much in doubles this far out, but is exact enough with 60 digits
+			BigDecimal u = new BigDecimal(knot);
+			BigDecimal u4 = u.pow(4);
+			BigDecimal even = BigDecimal.ONE; // (-1)^n u^4n / (2n)!
+			BigDecimal odd = u.pow(2); // (-1)^n u^(4n+2) / (2n+1)!
+			BigDecimal fc = BigDecimal.ZERO;
+			BigDecimal fs = BigDecimal.ZERO;
+			for (int n = 0; even.abs().compareTo(tiny) > 0 || odd.abs().compareTo(tiny) > 0; n++) {
+				fc = fc.add(even.divide(new BigDecimal(4*n+1), context), context);
+				fs = fs.add(odd.divide(new BigDecimal(4*n+3), context), context);
+				even = even.multiply(u4).divide(new BigDecimal(-(2*n+1)*(2*n+2)), context);
+				odd = odd.multiply(u4).divide(new BigDecimal(-(2*n+2)*(2*n+3)), context);
+			}
+			FC[k] = fc.multiply(u).doubleValue();
+			FS[k] = fs.multiply(u).doubleValue();
+			GC[k] = knot * FC[k] - Math.sin(knot*knot) / 2;
+			GS[k] = knot * FS[k] - (1 - Math.cos(knot*knot)) / 2;
+			
+			// e^(i*(knot+h)^2) = e^(i*knot^2) * sum of p[n]*h^n, where (n+1)*p[n+1] = 2i*knot*p[n] + 2i*p[n-1]
+			double cos = Math.cos(knot*knot);
+			double sin = Math.sin(knot*knot);
+			double pr = 1, pi = 0, lastR = 0, lastI = 0;
+			for (int n = 0; n < PathMath.MAX_TERMS; n++) {
+				P[k][n] = Math.hypot(pr, pi);
+				QC[k][n] = (pr*cos - pi*sin) / (n+1);
+				QS[k][n] = (pr*sin + pi*cos) / (n+1);
+				RC[k][n] = QC[k][n] / (n+2);
+				RS[k][n] = QS[k][n] / (n+2);
+				
+				double nextR = -2 * (knot*pi + lastI) / (n+1);
+				double nextI = 2 * (knot*pr + lastR) / (n+1);
+				lastR = pr;
+				lastI = pi;
+				pr = nextR;
+				pi = nextI;
+			}
+		}
+	}
+	
+	// Most tolerances whose term limits are kept at once
+	private static final int CACHED_LIMITS = 8;
+	
+	// Terms needed for each knot at the tolerances kernels were made with lately, newest first.
+	// Never changed once it's been published, only replaced, so it can be searched without locking or allocating.
+	private static volatile TermLimits[] cachedLimits = new TermLimits[0];
+	
+	// Every term, for when the answer should be as close as doubles can get
+	private static volatile TermLimits allTerms;
+	
+	// Not final, so Path#reset can make a kernel into another one without allocating. See the top of the class about threads.
+	private double sqrtA, invSqrtA, invA, addConstant;
+	private int sign;
+	private TermLimits limits;
+	
+	// Each series evaluated at x = 0, which gets subtracted off, and how far off they might be
+	private double c1, c2, s1, s2, error0;
+	
+	/**
+	 * Calculates the constants needed in the taylor series's for a segment, to within {@link PathMath#TOLERANCE}.
+	 * 
+	 * @param a Angular acceleration (radians), must not be 0
+	 * @param b Initial angular velocity (radians)
+	 */
+	public TaylorKernel(double a, double b) {
+		this(a, b, PathMath.TOLERANCE);
+	}
+	
+	/**
+	 * Calculates the constants needed in the taylor series's for a segment.
+	 * 
+	 * @param a Angular acceleration (radians), must not be 0
+	 * @param b Initial angular velocity (radians)
+	 * @param tolerance Largest error allowed in each series, before it gets scaled into a position
+	 */
+	public TaylorKernel(double a, double b, double tolerance) {
+		set(a, b, tolerance, new Point(), new Point());
+	}
+	
+	/**
+	 * Makes this kernel into the one {@link #TaylorKernel(double, double, double)} would make.
+	 * 
+	 * @param f Scratch space
+	 * @param g Scratch space
+	 */
+	void set(double a, double b, double tolerance, Point f, Point g) {
+		this.sign = (int) Math.signum(a);
+		a = Math.abs(a);
+		this.sqrtA = Math.sqrt(a/2);
+		this.invSqrtA = 1/sqrtA;
+		this.invA = 2 / a;
+		this.addConstant = sign*b/(2*sqrtA);
+		
+		this.limits = limits(tolerance);
+		
+		evaluate(addConstant, limits, 1, 0, f);
+		evaluate(addConstant, limits, 0, 1, g);
+		this.error0 = error(addConstant, limits);
+		this.c1 = f.x;
+		this.s1 = f.y;
+		this.c2 = g.x;
+		this.s2 = g.y;
+	}
+	
+	/**
+	 * Finds the term limits for a tolerance, working them out only if none of the last {@value #CACHED_LIMITS}
+	 * tolerances used were the same, so kernels with a few different tolerances can be mixed without redoing the work.
+	 */
+	private static TermLimits limits(double tolerance) {
+		for (TermLimits limits : cachedLimits) {
+			if (limits.tolerance == tolerance) {
+				return limits;
+			}
+		}
+		
+		synchronized (TermLimits.class) {
+			// Another thread might have added it while this one waited
+			TermLimits[] cached = cachedLimits;
+			for (TermLimits limits : cached) {
+				if (limits.tolerance == tolerance) {
+					return limits;
+				}
+			}
+			
+			TermLimits limits = new TermLimits(tolerance);
+			TermLimits[] replacement = new TermLimits[Math.min(cached.length + 1, CACHED_LIMITS)];
+			replacement[0] = limits;
+			System.arraycopy(cached, 0, replacement, 1, replacement.length - 1);
+			cachedLimits = replacement;
+			return limits;
+		}
+	}
+	
+	/**
+	 * Copies a kernel, but for the opposite angular acceleration and velocity.
+	 */
+	private TaylorKernel(TaylorKernel source) {
+		this.sign = -source.sign;
+		this.sqrtA = source.sqrtA;
+		this.invSqrtA = source.invSqrtA;
+		this.invA = source.invA;
+		this.addConstant = source.addConstant;
+		this.limits = source.limits;
+		this.c1 = source.c1;
+		this.c2 = source.c2;
+		this.s1 = source.s1;
+		this.s2 = source.s2;
+		this.error0 = source.error0;
+	}
+	
+	/**
+	 * Negating both the angular acceleration and initial angular velocity only flips the sign of
+	 * the sine series's, so the mirrored kernel can reuse all of this kernel's constants.
+	 * 
+	 * @return Kernel for -a and -b
+	 */
+	@Override
+	public TaylorKernel mirror() {
+		return new TaylorKernel(this);
+	}
+	
+	/**
+	 * Finds F(u) and G(u) (see the top of this class) using every term there is, for building other approximations from.
+	 * 
+	 * @param u
+	 * @param f Gets the cosine and sine parts of F
+	 * @param g Gets the cosine and sine parts of G
+	 */
+	static void fresnel(double u, Point f, Point g) {
+		TermLimits limits = allTerms;
+		if (limits == null) {
+			limits = new TermLimits(0);
+			allTerms = limits;
+		}
+		
+		evaluate(u, limits, 1, 0, f);
+		evaluate(u, limits, 0, 1, g);
+	}
+	
+	/**
+	 * Bound on the error of F and G from using only the terms up to n of the series around knot k, for |h| up to ah.
+	 * Each coefficient of the exponential is at most rho = (2*knot*|h| + 2*h^2)/(n+1) times the bigger of the two before it,
+	 * so once rho is at most 1/2, the rest add up to at most 4*rho times that. Integrating gives another factor
+	 * of |h|/(n+2), and G is that integrated again, which only makes it smaller.
+	 * 
+	 * @return The bound, or infinity if rho is too big to tell
+	 */
+	private static double bound(int k, int n, double ah) {
+		double rho = (2*k*KNOT_SPACING*ah + 2*ah*ah) * INVERSE[n];
+		if (rho > 0.5) {
+			return Double.POSITIVE_INFINITY;
+		}
+		
+		double current = P[k][n] * Math.pow(ah, n);
+		double previous = n == 0 ? 0 : P[k][n-1] * Math.pow(ah, n-1);
+		return Math.max(current, previous) * 4 * rho * ah * INVERSE[n+1];
+	}
+	
+	/**
+	 * Finds alpha*F(u) + beta*G(u), using only as many terms as the tolerance needs.
+	 * Only ever needing this combination means nothing has to be allocated to give back all four parts.
+	 * 
+	 * @param u
+	 * @param limits Terms needed for the tolerance
+	 * @param alpha Multiplier for F
+	 * @param beta Multiplier for G
+	 * @param dest Gets the cosine part as x and the sine part as y
+	 */
+	private static void evaluate(double u, TermLimits limits, double alpha, double beta, Point dest) {
+		evaluate(u, limits, alpha, beta, dest, null, 0, null, 0);
+	}
+	
+	/**
+	 * Same as {@link #evaluate(double, TermLimits, double, double, Point)}, but if dest is null the cosine part goes
+	 * into xs at xIndex and the sine part into ys at yIndex instead.
+	 */
+	private static void evaluate(double u, TermLimits limits, double alpha, double beta, Point dest, double[] xs, int xIndex, double[] ys, int yIndex) {
+		double au = Math.abs(u);
+		
+		// F is odd, so G is even
+		if (u < 0) {
+			alpha = -alpha;
+		}
+		
+		double cosPart, sinPart;
+		if (au <= LAST_KNOT + KNOT_SPACING/2) {
+			int k = (int) Math.round(au / KNOT_SPACING);
+			double h = au - k * KNOT_SPACING;
+			double ah = Math.abs(h);
+			
+			double[] limit = limits.limits[k];
+			int n = 0;
+			while (ah > limit[n]) {
+				n++;
+			}
+			
+			double[] qc = QC[k], qs = QS[k], rc = RC[k], rs = RS[k];
+			double sc = qc[n], ss = qs[n], tc = rc[n], ts = rs[n];
+			for (int i = n - 1; i >= 0; i--) {
+				sc = sc * h + qc[i];
+				ss = ss * h + qs[i];
+				tc = tc * h + rc[i];
+				ts = ts * h + rs[i];
+			}
+			
+			double h2 = h * h;
+			cosPart = alpha * (FC[k] + sc*h) + beta * (GC[k] + FC[k]*h + tc*h2);
+			sinPart = alpha * (FS[k] + ss*h) + beta * (GS[k] + FS[k]*h + ts*h2);
+		} else {
+			// F(u) = F(infinity) - e^(i*u^2) * sum of a[n]/u^(2n+1), where a[n] = (i/2) * (-i/2)^n * (2n-1)!!.
+			// The factors of i go round i, 1, -i, -1, so the terms take turns between the real and imaginary parts.
+			double inverse2 = 1 / (2*au*au);
+			double term = 1 / (2*au);
+			double re = 0, im = 0;
+			for (int n = 0; n < PathMath.MAX_TERMS; n++) {
+				switch (n & 3) {
+					case 0: im += term; break;
+					case 1: re += term; break;
+					case 2: im -= term; break;
+					default: re -= term; break;
+				}
+				
+				// The rest is at most twice the next term, and G is u*F plus something exact
+				term *= (2*n+1) * inverse2;
+				if (2 * term * au <= limits.tolerance) {
+					break;
+				}
+			}
+			
+			double cos = Math.cos(au*au);
+			double sin = Math.sin(au*au);
+			double fc = F_INFINITY - (re*cos - im*sin);
+			double fs = F_INFINITY - (re*sin + im*cos);
+			cosPart = alpha * fc + beta * (au*fc - sin / 2);
+			sinPart = alpha * fs + beta * (au*fs - (1 - cos) / 2);
+		}
+		
+		if (dest != null) {
+			dest.x = cosPart;
+			dest.y = sinPart;
+		} else {
+			xs[xIndex] = cosPart;
+			ys[yIndex] = sinPart;
+		}
+	}
+	
+	/**
+	 * Finds how far off {@link #evaluate(double, TermLimits, double, double, Point)} could be for u, in each part of F and G.
+	 */
+	private static double error(double u, TermLimits limits) {
+		double au = Math.abs(u);
+		
+		if (au <= LAST_KNOT + KNOT_SPACING/2) {
+			int k = (int) Math.round(au / KNOT_SPACING);
+			double ah = Math.abs(au - k * KNOT_SPACING);
+			
+			double[] limit = limits.limits[k];
+			int n = 0;
+			while (ah > limit[n]) {
+				n++;
+			}
+			return bound(k, n, ah);
+		}
+		
+		double inverse2 = 1 / (2*au*au);
+		double term = 1 / (2*au);
+		double error = Double.POSITIVE_INFINITY;
+		for (int n = 0; n < PathMath.MAX_TERMS; n++) {
+			term *= (2*n+1) * inverse2;
+			error = 2 * term * au;
+			if (error <= limits.tolerance) {
+				break;
+			}
+		}
+		return error;
+	}
+	
+	/**
+	 * Taylor series for the first integral of cosine, where the
+	 * function inside the cosine is more complicated than simple "x".
+	 * Specifically, the angle at any given time is a quadratic dependent
+	 * on angular acceleration and initial angular velocity, which makes taking
+	 * the antiderivative hard. Only as many terms as the tolerance needs are used.
+	 * 
+	 * @param x Time
+	 * @return Approximation for integral of the cosine of a function
+	 */
+	@Override
+	public double cI1(double x) {
+		Point f = new Point();
+		evaluate(sqrtA * x + addConstant, limits, 1, 0, f);
+		return (f.x - c1) * invSqrtA;
+	}
+	
+	/**
+	 * Integral of {@link #cI1(double)}.
+	 * 
+	 * @param x Time
+	 * @return Approximation for second integral of the cosine of a function
+	 */
+	@Override
+	public double cI2(double x) {
+		Point g = new Point();
+		evaluate(sqrtA * x + addConstant, limits, 0, 1, g);
+		return (g.x - c2) * invA - c1 * invSqrtA * x;
+	}
+	
+	/**
+	 * Same as {@link #cI1(double)}, except this Taylor series approximates sine.
+	 * 
+	 * @param x Time
+	 * @return Approximation for integral of the sine of a function
+	 */
+	@Override
+	public double sI1(double x) {
+		Point f = new Point();
+		evaluate(sqrtA * x + addConstant, limits, 1, 0, f);
+		return (f.y - s1) * sign * invSqrtA;
+	}
+	
+	/**
+	 * Integral of {@link #sI1(double)}.
+	 * 
+	 * @param x Time
+	 * @return Approximation for second integral of the sine of a function
+	 */
+	@Override
+	public double sI2(double x) {
+		Point g = new Point();
+		evaluate(sqrtA * x + addConstant, limits, 0, 1, g);
+		return sign * ((g.y - s2) * invA - s1 * invSqrtA * x);
+	}
+	
+	/**
+	 * Finds the position at time x of something moving with this kernel's angular motion, the same as
+	 * {@link PathMath#integrate(double, double, double, double, double, Point)}. All four series are
+	 * evaluated in a single pass.
+	 * 
+	 * @param x Time
+	 * @param pA Position acceleration
+	 * @param s Initial speed
+	 * @param dest Point to be written to
+	 */
+	@Override
+	public void integrate(double x, double pA, double s, Point dest) {
+		// v*cI1 - pA*cI2, with cI1 and cI2 written out in terms of F and G
+		double v = x*pA + s;
+		double alpha = v * invSqrtA;
+		double beta = -pA * invA;
+		evaluate(sqrtA * x + addConstant, limits, alpha, beta, dest);
+		
+		dest.x += -alpha * c1 - beta * c2 + pA * c1 * invSqrtA * x;
+		dest.y = sign * (dest.y - alpha * s1 - beta * s2 + pA * s1 * invSqrtA * x);
+	}
+	
+	/**
+	 * Same as {@link #integrate(double, double, double, Point)}, but writes into arrays.
+	 * 
+	 * @param x Time
+	 * @param pA Position acceleration
+	 * @param s Initial speed
+	 * @param xs Array the x coordinate is written to
+	 * @param xIndex Where in xs it goes
+	 * @param ys Array the y coordinate is written to
+	 * @param yIndex Where in ys it goes
+	 */
+	@Override
+	public void integrate(double x, double pA, double s, double[] xs, int xIndex, double[] ys, int yIndex) {
+		double v = x*pA + s;
+		double alpha = v * invSqrtA;
+		double beta = -pA * invA;
+		evaluate(sqrtA * x + addConstant, limits, alpha, beta, null, xs, xIndex, ys, yIndex);
+		
+		xs[xIndex] += -alpha * c1 - beta * c2 + pA * c1 * invSqrtA * x;
+		ys[yIndex] = sign * (ys[yIndex] - alpha * s1 - beta * s2 + pA * s1 * invSqrtA * x);
+	}
+	
+	/**
+	 * Finds how far off {@link #integrate(double, double, double, Point)} could be, from the terms of the series's that were left out.
+	 * Rounding isn't counted, but it's usually much smaller.
+	 * 
+	 * @param x Time
+	 * @param pA Position acceleration
+	 * @param s Initial speed
+	 * @return Most the position could be off by
+	 */
+	@Override
+	public double errorBound(double x, double pA, double s) {
+		double error = error(sqrtA * x + addConstant, limits) + error0;
+		double perAxis = Math.abs(x*pA + s) * error * invSqrtA + Math.abs(pA) * (error * invA + error0 * invSqrtA * Math.abs(x));
+		return perAxis * Math.sqrt(2);
+	}
+	
+	/**
+	 * @return Largest error allowed in each series
+	 */
+	public double tolerance() {
+		return limits.tolerance;
+	}
+	
+	/**
+	 * How many terms each knot's series needs to stay within a tolerance, for every |h| it can be used with.
+	 * Working this out takes a while, so it's shared by every kernel with the same tolerance.
+	 */
+	private static class TermLimits {
+		
+		final double tolerance;
+		
+		// limits[k][n] is the largest |h| that only needs the terms up to n around knot k
+		final double[][] limits = new double[KNOTS][PathMath.MAX_TERMS];
+		
+		TermLimits(double tolerance) {
+			this.tolerance = tolerance;
+			
+			double furthest = KNOT_SPACING / 2;
+			for (int k = 0; k < KNOTS; k++) {
+				for (int n = 0; n < PathMath.MAX_TERMS; n++) {
+					if (n == PathMath.MAX_TERMS - 1 || bound(k, n, furthest) <= tolerance) {
+						limits[k][n] = Double.POSITIVE_INFINITY;
+						continue;
+					}
+					
+					// The bound only grows with |h|, so search for where it crosses the tolerance
+					double low = 0, high = furthest;
+					for (int i = 0; i < 60; i++) {
+						double middle = (low + high) / 2;
+						if (bound(k, n, middle) <= tolerance) {
+							low = middle;
+						} else {
+							high = middle;
+						}
+					}
+					limits[k][n] = low;
+				}
+			}
+		}
+		
+	}
+	
+}
@@ -0,0 +1,74 @@
+package badlib;
+
+/**
+ * Samples of a {@link Path}, stored as one primitive array per quantity instead of one object per sample.
+ * Filled in by {@link Path#sample(double, double, int, TrajectoryBuffer)}. Index i of every array
+ * belongs to the same sample. Only the first {@link #size} elements of each array are valid;
+ * the arrays can be longer than that so a buffer can be reused for shorter trajectories.
+ * 
+ * Wheel speeds and distances follow the same (left, right) convention as {@link Path#wheelSpeeds(double, Point)}
+ * and {@link Path#wheelDistances(double, Point)}.
+ */
+public class TrajectoryBuffer {
+
+	public int size;
+	
+	public double[] t;
+	public double[] x, y, angle, omega, speed;
+	public double[] leftX, leftY, rightX, rightY;
+	public double[] leftSpeed, rightSpeed, leftDistance, rightDistance;
+	
+	/**
+	 * Creates an empty buffer, which will grow the first time it is filled.
+	 */
+	public TrajectoryBuffer() {
+		this(0);
+	}
+	
+	/**
+	 * Creates a buffer which can hold the given number of samples without growing.
+	 * 
+	 * @param capacity Number of samples
+	 */
+	public TrajectoryBuffer(int capacity) {
+		allocate(capacity);
+	}
+	
+	/**
+	 * @return Number of samples the buffer can hold without growing
+	 */
+	public int capacity() {
+		return t.length;
+	}
+	
+	/**
+	 * Makes sure the buffer can hold at least this many samples. If it has to grow,
+	 * the samples already in it are lost.
+	 * 
+	 * @param capacity Number of samples
+	 */
+	public void ensureCapacity(int capacity) {
+		if (capacity > t.length) {
+			allocate(capacity);
+		}
+	}
+	
+	private void allocate(int capacity) {
+		this.size = 0;
+		this.t = new double[capacity];
+		this.x = new double[capacity];
+		this.y = new double[capacity];
+		this.angle = new double[capacity];
+		this.omega = new double[capacity];
+		this.speed = new double[capacity];
+		this.leftX = new double[capacity];
+		this.leftY = new double[capacity];
+		this.rightX = new double[capacity];
+		this.rightY = new double[capacity];
+		this.leftSpeed = new double[capacity];
+		this.rightSpeed = new double[capacity];
+		this.leftDistance = new double[capacity];
+		this.rightDistance = new double[capacity];
+	}
+	
+}
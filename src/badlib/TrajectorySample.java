@@ -0,0 +1,37 @@
+package badlib;
+
+/**
+ * Everything about a {@link Path} at one time, the same quantities a {@link TrajectoryBuffer} holds for each sample.
+ * Made by {@link TrajectorySpliterator}, one per sample, so they can be passed around in streams.
+ * 
+ * Wheel speeds and distances follow the same (left, right) convention as {@link Path#wheelSpeeds(double, Point)}
+ * and {@link Path#wheelDistances(double, Point)}.
+ */
+public class TrajectorySample {
+	
+	public final double t;
+	public final double x, y, angle, omega, speed;
+	public final double leftX, leftY, rightX, rightY;
+	public final double leftSpeed, rightSpeed, leftDistance, rightDistance;
+	
+	public TrajectorySample(double t, double x, double y, double angle, double omega, double speed,
+			double leftX, double leftY, double rightX, double rightY,
+			double leftSpeed, double rightSpeed, double leftDistance, double rightDistance
+	) {
+		this.t = t;
+		this.x = x;
+		this.y = y;
+		this.angle = angle;
+		this.omega = omega;
+		this.speed = speed;
+		this.leftX = leftX;
+		this.leftY = leftY;
+		this.rightX = rightX;
+		this.rightY = rightY;
+		this.leftSpeed = leftSpeed;
+		this.rightSpeed = rightSpeed;
+		this.leftDistance = leftDistance;
+		this.rightDistance = rightDistance;
+	}
+	
+}
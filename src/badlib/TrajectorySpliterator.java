@@ -0,0 +1,216 @@
+package badlib;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Produces the samples of a {@link Path} taken every dt, one at a time, without storing them. It makes the same samples as
+ * {@link Path#sample(double, double, int, TrajectoryBuffer)}, but can be used as a stream, and can be split for parallel streams.
+ * Get one from {@link Path#spliterator(double, double, int)}, {@link Path#iterator(double, double, int)} or
+ * {@link Path#stream(double, double, int, boolean)}.
+ * 
+ * Samples are made in order, so everything that stays the same over a segment (its kernel, start, and the rotation
+ * that puts it in place) is only looked up or worked out when a segment is entered. The heading, which the wheel positions
+ * need the cosine and sine of, isn't found with {@link Math#cos(double)} and {@link Math#sin(double)} for every sample.
+ * Within a segment the angle changes by a step that itself grows by tA*dt^2 every sample, so the cosine and sine are
+ * rotated forward with the angle addition formulas, using the cosine and sine of the step and of tA*dt^2.
+ * To keep rounding from building up, they're worked out exactly again every {@link #RESYNC} samples and at every segment.
+ * Positions are found the same way {@link Path#position(double, Point)} finds them, so they're exactly the same.
+ */
+public class TrajectorySpliterator implements Spliterator<TrajectorySample> {
+	
+	/**
+	 * Most samples in a row that use the angle addition formulas, before the heading is worked out exactly again
+	 */
+	public static int RESYNC = 256;
+	
+	/**
+	 * Fewest samples worth splitting off for another thread
+	 */
+	public static int MIN_SPLIT = 64;
+	
+	private final Path path;
+	private final PathData data;
+	private final double t0, dt;
+	private int next;
+	private final int end;
+	
+	// Segment the last sample was in, or -1 if the next sample has to start over
+	private int index = -1;
+	private int sinceResync;
+	private double nextStart;
+	
+	// Things that stay the same over the segment
+	private double tA, w, pA, s, start, rotationCos, rotationSin, startX, startY;
+	private IntegrationKernel kernel;
+	
+	// Cosine and sine of the heading, of the change in heading to the next sample, and of how much that change grows
+	private double headingCos, headingSin, stepCos, stepSin, growCos, growSin;
+	
+	private final Point pos = new Point();
+	
+	/**
+	 * @param path Path to sample
+	 * @param t0 Time of the first sample
+	 * @param dt Time between samples
+	 * @param n Number of samples
+	 * @throws IllegalArgumentException If n is negative
+	 */
+	public TrajectorySpliterator(Path path, double t0, double dt, int n) {
+		this(path, t0, dt, 0, n);
+		if (n < 0) {
+			throw new IllegalArgumentException("Number of samples can't be negative");
+		}
+	}
+	
+	private TrajectorySpliterator(Path path, double t0, double dt, int from, int to) {
+		this.path = path;
+		this.data = path.data();
+		this.t0 = t0;
+		this.dt = dt;
+		this.next = from;
+		this.end = to;
+	}
+	
+	@Override
+	public boolean tryAdvance(Consumer<? super TrajectorySample> action) {
+		if (next >= end) {
+			return false;
+		}
+		
+		action.accept(sample(t0 + next*dt));
+		next++;
+		return true;
+	}
+	
+	@Override
+	public void forEachRemaining(Consumer<? super TrajectorySample> action) {
+		while (next < end) {
+			action.accept(sample(t0 + next*dt));
+			next++;
+		}
+	}
+	
+	@Override
+	public Spliterator<TrajectorySample> trySplit() {
+		int remaining = end - next;
+		if (remaining < 2*MIN_SPLIT) {
+			return null;
+		}
+		
+		// The first half is given away, so this one carries on from the middle and has to start over there
+		int middle = next + remaining/2;
+		TrajectorySpliterator prefix = new TrajectorySpliterator(path, t0, dt, next, middle);
+		next = middle;
+		index = -1;
+		return prefix;
+	}
+	
+	@Override
+	public long estimateSize() {
+		return end - next;
+	}
+	
+	@Override
+	public int characteristics() {
+		return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+	}
+	
+	private TrajectorySample sample(double t) {
+		// Past the end nothing moves, so there's nothing to step forward
+		if (index < 0 || t < start || t >= nextStart || t > data.T) {
+			enter(data.indexForTime(t, Math.max(index, 0)), t);
+		} else if (++sinceResync >= RESYNC) {
+			enter(index, t);
+		} else {
+			step();
+		}
+		
+		double angle = data.angle(index, t);
+		double omega = data.omega(index, t);
+		double speed = data.speed(index, t);
+		double distance = data.distance(index, t);
+		position(t);
+		
+		// Same as Path.sample, with the heading's cosine and sine from the recurrence
+		double dx = Path.ROBOT_RADIUS * headingSin;
+		double dy = -Path.ROBOT_RADIUS * headingCos;
+		double tangential = omega * Path.ROBOT_RADIUS;
+		double arc = angle * Path.ROBOT_RADIUS;
+		
+		return new TrajectorySample(
+				t,
+				pos.x,
+				pos.y,
+				angle,
+				omega,
+				speed,
+				pos.x - dx,
+				pos.y - dy,
+				pos.x + dx,
+				pos.y + dy,
+				speed - tangential,
+				speed + tangential,
+				distance - arc,
+				distance + arc
+		);
+	}
+	
+	/**
+	 * Looks up everything for the segment and works out the heading exactly.
+	 */
+	private void enter(int index, double t) {
+		if (index != this.index) {
+			this.index = index;
+			this.tA = data.tA[index];
+			this.w = data.omega[index];
+			this.pA = data.pA[index];
+			this.s = data.speed[index];
+			this.start = data.t[index];
+			this.nextStart = index + 1 < data.segments ? data.t[index + 1] : Double.POSITIVE_INFINITY;
+			this.kernel = path.kernel(index);
+			this.rotationCos = Math.cos(-path.rotation(index));
+			this.rotationSin = Math.sin(-path.rotation(index));
+			this.startX = path.startX(index);
+			this.startY = path.startY(index);
+			
+			double grow = tA * dt*dt;
+			this.growCos = Math.cos(grow);
+			this.growSin = Math.sin(grow);
+		}
+		
+		double angle = data.angle(index, t);
+		double step = data.omega(index, t) * dt + tA * dt*dt / 2;
+		this.headingCos = Math.cos(angle);
+		this.headingSin = Math.sin(angle);
+		this.stepCos = Math.cos(step);
+		this.stepSin = Math.sin(step);
+		this.sinceResync = 0;
+	}
+	
+	/**
+	 * Moves the heading forward by one sample.
+	 */
+	private void step() {
+		double c = headingCos * stepCos - headingSin * stepSin;
+		headingSin = headingSin * stepCos + headingCos * stepSin;
+		headingCos = c;
+		
+		c = stepCos * growCos - stepSin * growSin;
+		stepSin = stepSin * growCos + stepCos * growSin;
+		stepCos = c;
+	}
+	
+	/**
+	 * Same as Path.position, with the segment's constants already found.
+	 */
+	private void position(double t) {
+		PathMath.integrate(Math.min(t, data.T) - start, tA, w, pA, s, kernel, pos);
+		
+		double x = pos.x;
+		double y = pos.y;
+		pos.x = x*rotationCos - y*rotationSin + startX;
+		pos.y = x*rotationSin + y*rotationCos + startY;
+	}
+	
+}
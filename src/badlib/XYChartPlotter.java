@@ -64,29 +64,21 @@ public class XYChartPlotter extends ApplicationFrame {
 		final XYSeries pos = new XYSeries("Position");
 
 		System.out.println(path.duration());
-		Point left = new Point();
-		Point right = new Point();
-		Point speed = new Point();
-		Point dist = new Point();
-		Point centerPos = new Point();
 		
 		int samples = 200;
-		double t = 0;
-		for (int i = 0; i <= samples; i ++) {
-			t = ((double)i) * path.duration() / samples;
-			path.wheelPositions(t, left, right);
-			path.wheelDistances(t, dist);
-			path.wheelSpeeds(t, speed);
-			path.position(t, centerPos);
+		TrajectoryBuffer buffer = new TrajectoryBuffer(samples + 1);
+		path.sample(0, path.duration() / samples, samples + 1, buffer);
+		for (int i = 0; i < buffer.size; i ++) {
+			double t = buffer.t[i];
 			
-			leftPos.add(left.x, left.y);
-			rightPos.add(right.x, right.y);
-			leftSpeed.add(t/path.duration() * 20, speed.x/2);
-			rightSpeed.add(t/path.duration() * 20, speed.y/2);
-			leftDist.add(t/path.duration() * 20, dist.x);
-			rightDist.add(t/path.duration() * 20, dist.y);
-			angle.add(t/path.duration() * 20, path.omega(t)*6);
-			pos.add(centerPos.x, centerPos.y);
+			leftPos.add(buffer.leftX[i], buffer.leftY[i]);
+			rightPos.add(buffer.rightX[i], buffer.rightY[i]);
+			leftSpeed.add(t/path.duration() * 20, buffer.leftSpeed[i]/2);
+			rightSpeed.add(t/path.duration() * 20, buffer.rightSpeed[i]/2);
+			leftDist.add(t/path.duration() * 20, buffer.leftDistance[i]);
+			rightDist.add(t/path.duration() * 20, buffer.rightDistance[i]);
+			angle.add(t/path.duration() * 20, buffer.omega[i]*6);
+			pos.add(buffer.x[i], buffer.y[i]);
 		}
 
 		final XYSeriesCollection leftDataset = new XYSeriesCollection();